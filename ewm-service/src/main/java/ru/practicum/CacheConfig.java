@@ -0,0 +1,31 @@
+package ru.practicum;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String CATEGORIES = "categories";
+    public static final String COMPILATIONS = "compilations";
+    public static final String EVENTS = "events";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheManagerCustomizer(
+            @Value("${EWMServiceApp.cache.specs.categories}") String categoriesSpec,
+            @Value("${EWMServiceApp.cache.specs.compilations}") String compilationsSpec,
+            @Value("${EWMServiceApp.cache.specs.events}") String eventsSpec) {
+        return cacheManager -> {
+            cacheManager.setAllowNullValues(false);
+            // recordStats нужен для метрик cache.gets{result=hit|miss} в actuator
+            cacheManager.registerCustomCache(CATEGORIES, Caffeine.from(categoriesSpec).recordStats().build());
+            cacheManager.registerCustomCache(COMPILATIONS, Caffeine.from(compilationsSpec).recordStats().build());
+            cacheManager.registerCustomCache(EVENTS, Caffeine.from(eventsSpec).recordStats().build());
+        };
+    }
+}
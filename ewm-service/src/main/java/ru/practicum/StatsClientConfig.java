@@ -1,18 +1,241 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.function.ToIntFunction;
+
+@Slf4j
 @Configuration
 public class StatsClientConfig {
+    private static final String HTTP2_PROPERTY = "EWMServiceApp.stats-service.http.http2";
 
     @Value("${EWMServiceApp.stats-service.url}")
     private String statsServiceUrl;
 
+    @Value("${EWMServiceApp.stats-service.http.connect-timeout:1s}")
+    private Duration connectTimeout;
+
+    @Value("${EWMServiceApp.stats-service.http.read-timeout:3s}")
+    private Duration readTimeout;
+
+    @Bean
+    public StatsClient statsClient(RestTemplateBuilder restTemplateBuilder, ClientHttpRequestFactory statsRequestFactory) {
+        return new StatsClient(statsServiceUrl, restTemplateBuilder, statsRequestFactory);
+    }
+
+    @Bean
+    public AsyncStatsClient asyncStatsClient(ObjectMapper objectMapper, CloseableHttpAsyncClient statsAsyncHttpClient) {
+        return new AsyncStatsClient(statsServiceUrl, statsAsyncHttpClient, objectMapper);
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingAsyncClientConnectionManager statsAsyncConnectionManager(
+            @Value("${" + HTTP2_PROPERTY + ":false}") boolean http2,
+            @Value("${EWMServiceApp.stats-service.http.max-connections:50}") int maxConnections,
+            @Value("${EWMServiceApp.stats-service.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${EWMServiceApp.stats-service.http.time-to-live:5m}") Duration timeToLive,
+            @Value("${EWMServiceApp.stats-service.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        return PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig(timeToLive, validateAfterInactivity))
+                // HTTP/2 выбирается через ALPN только по https://, по http:// остаётся HTTP/1.1
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(http2 ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient statsAsyncHttpClient(
+            PoolingAsyncClientConnectionManager statsAsyncConnectionManager,
+            @Value("${EWMServiceApp.stats-service.http.connection-request-timeout:500ms}") Duration connectionRequestTimeout,
+            @Value("${EWMServiceApp.stats-service.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${EWMServiceApp.stats-service.http.idle-timeout:30s}") Duration idleTimeout) {
+        CloseableHttpAsyncClient httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(statsAsyncConnectionManager)
+                .setDefaultRequestConfig(requestConfig(connectionRequestTimeout, keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+        httpClient.start();
+        return httpClient;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public PoolingHttpClientConnectionManager statsConnectionManager(
+            @Value("${EWMServiceApp.stats-service.http.max-connections:50}") int maxConnections,
+            @Value("${EWMServiceApp.stats-service.http.max-connections-per-route:20}") int maxConnectionsPerRoute,
+            @Value("${EWMServiceApp.stats-service.http.time-to-live:5m}") Duration timeToLive,
+            @Value("${EWMServiceApp.stats-service.http.validate-after-inactivity:2s}") Duration validateAfterInactivity) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig(timeToLive, validateAfterInactivity))
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public CloseableHttpClient statsHttpClient(
+            PoolingHttpClientConnectionManager statsConnectionManager,
+            @Value("${EWMServiceApp.stats-service.http.connection-request-timeout:500ms}") Duration connectionRequestTimeout,
+            @Value("${EWMServiceApp.stats-service.http.keep-alive:30s}") Duration keepAlive,
+            @Value("${EWMServiceApp.stats-service.http.idle-timeout:30s}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(statsConnectionManager)
+                .setDefaultRequestConfig(requestConfig(connectionRequestTimeout, keepAlive))
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public ClientHttpRequestFactory pooledStatsRequestFactory(CloseableHttpClient statsHttpClient) {
+        return new HttpComponentsClientHttpRequestFactory(statsHttpClient);
+    }
+
+    // Классический клиент Apache не поддерживает HTTP/2
+    @Bean
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "true")
+    public ClientHttpRequestFactory http2StatsRequestFactory() {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = HTTP2_PROPERTY, havingValue = "false", matchIfMissing = true)
+    public MeterBinder statsConnectionPoolMetrics(PoolingHttpClientConnectionManager statsConnectionManager) {
+        return registry -> poolGauges(registry, statsConnectionManager, "blocking");
+    }
+
+    @Bean
+    public MeterBinder statsAsyncConnectionPoolMetrics(PoolingAsyncClientConnectionManager statsAsyncConnectionManager) {
+        return registry -> poolGauges(registry, statsAsyncConnectionManager, "async");
+    }
+
+    @Bean
+    public CircuitBreaker statsCircuitBreaker(
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.slow-call-rate-threshold:50}") float slowCallRateThreshold,
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.slow-call-duration:2s}") Duration slowCallDuration,
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.minimum-number-of-calls:10}") int minimumNumberOfCalls,
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.wait-in-open-state:10s}") Duration waitInOpenState,
+            @Value("${EWMServiceApp.stats-service.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        CircuitBreaker circuitBreaker = CircuitBreaker.of("stats-service", CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                // BaseClient превращает ошибки HTTP в ответ, поэтому 5xx считается отказом по результату
+                .recordResult(result -> result instanceof ResponseEntity<?> response
+                        && response.getStatusCode().is5xxServerError())
+                // Ответ 4xx означает ошибку в запросе, а не отказ сервиса
+                .ignoreException(e -> clientError(e instanceof CompletionException ? e.getCause() : e))
+                .build());
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Сервис статистики: {}", event.getStateTransition()));
+        return circuitBreaker;
+    }
+
     @Bean
-    public StatsClient statsClient(RestTemplateBuilder restTemplateBuilder) {
-        return new StatsClient(statsServiceUrl, restTemplateBuilder);
+    public MeterBinder statsCircuitBreakerMetrics(CircuitBreaker statsCircuitBreaker) {
+        return registry -> {
+            Gauge.builder("stats.client.circuit.state", statsCircuitBreaker, breaker -> breaker.getState().getOrder())
+                    .description("Состояние предохранителя сервиса статистики: 0 - закрыт, 1 - открыт, 2 - полуоткрыт")
+                    .register(registry);
+            statsCircuitBreaker.getEventPublisher().onStateTransition(event -> registry.counter(
+                    "stats.client.circuit.transitions",
+                    "from", event.getStateTransition().getFromState().name(),
+                    "to", event.getStateTransition().getToState().name()).increment());
+            statsCircuitBreaker.getEventPublisher().onCallNotPermitted(event ->
+                    registry.counter("stats.client.circuit.rejected").increment());
+        };
+    }
+
+    private static boolean clientError(Throwable e) {
+        return e instanceof StatsClientException statsException && !statsException.isServerError();
+    }
+
+    private ConnectionConfig connectionConfig(Duration timeToLive, Duration validateAfterInactivity) {
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                .build();
+    }
+
+    private RequestConfig requestConfig(Duration connectionRequestTimeout, Duration keepAlive) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .setConnectionKeepAlive(TimeValue.of(keepAlive))
+                .build();
+    }
+
+    private static void poolGauges(MeterRegistry registry, ConnPoolControl<?> connectionManager, String client) {
+        poolGauge(registry, connectionManager, client, "leased", PoolStats::getLeased);
+        poolGauge(registry, connectionManager, client, "available", PoolStats::getAvailable);
+        poolGauge(registry, connectionManager, client, "pending", PoolStats::getPending);
+        poolGauge(registry, connectionManager, client, "max", PoolStats::getMax);
+    }
+
+    private static void poolGauge(MeterRegistry registry,
+                                  ConnPoolControl<?> connectionManager,
+                                  String client,
+                                  String state,
+                                  ToIntFunction<PoolStats> value) {
+        Gauge.builder("stats.client.pool.connections", connectionManager,
+                        manager -> value.applyAsInt(manager.getTotalStats()))
+                .tag("client", client)
+                .tag("state", state)
+                .description("Соединения пула HTTP-клиента сервиса статистики")
+                .register(registry);
     }
 }
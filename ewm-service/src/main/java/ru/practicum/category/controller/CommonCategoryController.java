@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.category.model.CategoryDto;
 import ru.practicum.category.service.CategoryService;
+import ru.practicum.pagination.PageCursor;
 
 import java.util.List;
 
@@ -27,9 +28,13 @@ public class CommonCategoryController {
 
     @GetMapping
     public ResponseEntity<List<CategoryDto>> getAll(@RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                    @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                                    @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                    @RequestParam(required = false) String after) {
         log.info("Получен запрос GET /categories");
-        return ResponseEntity.ok(categoryService.getAll(from, size));
+        List<CategoryDto> categories = after != null
+                ? categoryService.getAllAfter(PageCursor.decode(after), size)
+                : categoryService.getAll(from, size);
+        return PageCursor.toResponse(categories, size, category -> PageCursor.of(category.getId()));
     }
 
     @GetMapping("/{id}")
@@ -1,9 +1,11 @@
 package ru.practicum.category.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.category.model.Category;
 
@@ -11,7 +13,7 @@ import java.util.List;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
-    @Query("SELECT c FROM categories c")
+    @Query("SELECT c FROM categories c ORDER BY c.id ASC")
     Page<Category> findCategories(Pageable pageable);
 
     default List<Category> findCategories(Integer from, Integer size) {
@@ -22,5 +24,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
         return findCategories(pageable).toList();
     }
 
+    @Query("SELECT c FROM categories c " +
+            "WHERE c.id > :afterId " +
+            "ORDER BY c.id ASC")
+    List<Category> findCategoriesAfter(@Param("afterId") Long afterId, Limit limit);
+
     List<Category> findByNameIgnoreCase(String name);
 }
@@ -1,7 +1,10 @@
 package ru.practicum.category.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import ru.practicum.CacheConfig;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.model.CategoryDto;
 import ru.practicum.category.model.CategoryMapper;
@@ -9,6 +12,8 @@ import ru.practicum.category.repository.CategoryRepository;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.NotFoundException;
+import ru.practicum.pagination.PageCursor;
+import ru.practicum.version.ResourceVersions;
 
 import java.util.List;
 
@@ -17,11 +22,20 @@ import java.util.List;
 public class CategoryService {
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final ResourceVersions resourceVersions;
 
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "'page:' + #from + ':' + #size")
     public List<CategoryDto> getAll(Integer from, Integer size) {
         return categoryRepository.findCategories(from, size).stream().map(CategoryMapper::categoryToDto).toList();
     }
 
+    public List<CategoryDto> getAllAfter(PageCursor after, Integer size) {
+        return categoryRepository.findCategoriesAfter(after.getId(), PageCursor.limit(size)).stream()
+                .map(CategoryMapper::categoryToDto)
+                .toList();
+    }
+
+    @Cacheable(cacheNames = CacheConfig.CATEGORIES, key = "#id")
     public CategoryDto getById(Long id) {
         return CategoryMapper.categoryToDto(
                 categoryRepository.findById(id).orElseThrow(
@@ -30,6 +44,7 @@ public class CategoryService {
         );
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CATEGORIES, allEntries = true)
     public CategoryDto create(CategoryDto newCategoryDto) {
         if (!categoryRepository.findByNameIgnoreCase(newCategoryDto.getName()).isEmpty()) {
             throw new ConditionsNotMetException("Категория с именем " + newCategoryDto.getName() + " уже существует");
@@ -40,6 +55,8 @@ public class CategoryService {
         );
     }
 
+    // Названия категорий входят в ответы подборок и поиска событий
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIES, CacheConfig.COMPILATIONS, CacheConfig.EVENTS}, allEntries = true)
     public CategoryDto update(Long id, CategoryDto newCategoryDto) {
         Category category = categoryRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Категория с id=" + id + " не найдена")
@@ -50,9 +67,12 @@ public class CategoryService {
         }
 
         category.setName(newCategoryDto.getName());
-        return CategoryMapper.categoryToDto(categoryRepository.saveAndFlush(category));
+        Category saved = categoryRepository.saveAndFlush(category);
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
+        return CategoryMapper.categoryToDto(saved);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.CATEGORIES, CacheConfig.EVENTS}, allEntries = true)
     public void delete(Long id) {
         categoryRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Категория с id=" + id + " не найдена")
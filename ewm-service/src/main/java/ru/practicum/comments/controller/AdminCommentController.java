@@ -5,6 +5,7 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.comments.model.CommentDto;
 import ru.practicum.comments.service.CommentService;
+import ru.practicum.pagination.PageCursor;
 
 import java.util.List;
 
@@ -33,11 +35,14 @@ public class AdminCommentController {
     }
 
     @GetMapping()
-    @ResponseStatus(value = HttpStatus.OK)
-    public List<CommentDto> getComments(@RequestParam(required = false, name = "rangeStart") String rangeStart,
-                                        @RequestParam(required = false, name = "rangeEnd") String rangeEnd,
-                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
-        return commentService.getComments(rangeStart, rangeEnd, from, size);
+    public ResponseEntity<List<CommentDto>> getComments(@RequestParam(required = false, name = "rangeStart") String rangeStart,
+                                                        @RequestParam(required = false, name = "rangeEnd") String rangeEnd,
+                                                        @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                        @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                        @RequestParam(required = false, name = "after") String after) {
+        List<CommentDto> comments = after != null
+                ? commentService.getCommentsAfter(rangeStart, rangeEnd, PageCursor.decode(after), size)
+                : commentService.getComments(rangeStart, rangeEnd, from, size);
+        return PageCursor.toResponse(comments, size, comment -> PageCursor.of(comment.getId()));
     }
 }
@@ -4,16 +4,16 @@ import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.comments.model.CommentDto;
 import ru.practicum.comments.service.CommentService;
+import ru.practicum.pagination.PageCursor;
 
 import java.util.List;
 
@@ -26,13 +26,16 @@ public class CommonCommentController {
     private final CommentService commentService;
 
     @GetMapping("/{eventId}")
-    @ResponseStatus(value = HttpStatus.OK)
-    public List<CommentDto> getCommentsByEventId(@PathVariable Long eventId,
-                                                 @RequestParam(required = false, name = "rangeStart") String rangeStart,
-                                                 @RequestParam(required = false, name = "rangeEnd") String rangeEnd,
-                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<CommentDto>> getCommentsByEventId(@PathVariable Long eventId,
+                                                                 @RequestParam(required = false, name = "rangeStart") String rangeStart,
+                                                                 @RequestParam(required = false, name = "rangeEnd") String rangeEnd,
+                                                                 @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                 @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                 @RequestParam(required = false, name = "after") String after) {
 
-        return commentService.getCommentsByEventId(rangeStart, rangeEnd, eventId, from, size);
+        List<CommentDto> comments = after != null
+                ? commentService.getCommentsByEventIdAfter(rangeStart, rangeEnd, eventId, PageCursor.decode(after), size)
+                : commentService.getCommentsByEventId(rangeStart, rangeEnd, eventId, from, size);
+        return PageCursor.toResponse(comments, size, comment -> PageCursor.of(comment.getId()));
     }
 }
@@ -6,6 +6,7 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.comments.model.CommentDto;
 import ru.practicum.comments.model.CommentUpdateDto;
 import ru.practicum.comments.service.CommentService;
+import ru.practicum.pagination.PageCursor;
 
 import java.util.List;
 
@@ -57,13 +59,16 @@ public class SecuredCommentsController {
     }
 
     @GetMapping("/{userId}")
-    @ResponseStatus(value = HttpStatus.OK)
-    public List<CommentDto> getCommentsByUserId(@PathVariable Long userId,
-                                                @RequestParam(required = false, name = "rangeStart") String rangeStart,
-                                                @RequestParam(required = false, name = "rangeEnd") String rangeEnd,
-                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
-                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size) {
+    public ResponseEntity<List<CommentDto>> getCommentsByUserId(@PathVariable Long userId,
+                                                                @RequestParam(required = false, name = "rangeStart") String rangeStart,
+                                                                @RequestParam(required = false, name = "rangeEnd") String rangeEnd,
+                                                                @PositiveOrZero @RequestParam(name = "from", defaultValue = "0") Integer from,
+                                                                @Positive @RequestParam(name = "size", defaultValue = "10") Integer size,
+                                                                @RequestParam(required = false, name = "after") String after) {
 
-        return commentService.getCommentsByUserId(rangeStart, rangeEnd, userId, from, size);
+        List<CommentDto> comments = after != null
+                ? commentService.getCommentsByUserIdAfter(rangeStart, rangeEnd, userId, PageCursor.decode(after), size)
+                : commentService.getCommentsByUserId(rangeStart, rangeEnd, userId, from, size);
+        return PageCursor.toResponse(comments, size, comment -> PageCursor.of(comment.getId()));
     }
 }
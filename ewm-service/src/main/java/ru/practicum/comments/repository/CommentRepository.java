@@ -1,5 +1,6 @@
 package ru.practicum.comments.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -42,4 +43,38 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> getComments(@Param("rangeStart") LocalDateTime rangeStart,
                               @Param("rangeEnd") LocalDateTime rangeEnd,
                               Pageable pageable);
+
+    @Query("SELECT c FROM comments AS c " +
+            "WHERE :event = c.event.id " +
+            "AND c.id > :afterId " +
+            "AND ((CAST(:rangeStart as DATE) IS NULL OR c.created >= :rangeStart) " +
+            "AND (CAST(:rangeEnd as DATE) IS NULL OR c.created <= :rangeEnd)) " +
+            "ORDER BY c.id ASC")
+    List<Comment> getCommentsByEventIdAfter(@Param("event") Long event,
+                                            @Param("rangeStart") LocalDateTime rangeStart,
+                                            @Param("rangeEnd") LocalDateTime rangeEnd,
+                                            @Param("afterId") Long afterId,
+                                            Limit limit);
+
+    @Query("SELECT c FROM comments AS c " +
+            "WHERE :userId = c.user.id " +
+            "AND c.id > :afterId " +
+            "AND ((CAST(:rangeStart as DATE) IS NULL OR c.created >= :rangeStart) " +
+            "AND (CAST(:rangeEnd as DATE) IS NULL OR c.created <= :rangeEnd)) " +
+            "ORDER BY c.id ASC")
+    List<Comment> getCommentsByUserIdAfter(@Param("userId") Long userId,
+                                           @Param("rangeStart") LocalDateTime rangeStart,
+                                           @Param("rangeEnd") LocalDateTime rangeEnd,
+                                           @Param("afterId") Long afterId,
+                                           Limit limit);
+
+    @Query("SELECT c FROM comments AS c " +
+            "WHERE c.id > :afterId " +
+            "AND ((CAST(:rangeStart as DATE) IS NULL OR c.created >= :rangeStart) " +
+            "AND (CAST(:rangeEnd as DATE) IS NULL OR c.created <= :rangeEnd)) " +
+            "ORDER BY c.id ASC")
+    List<Comment> getCommentsAfter(@Param("rangeStart") LocalDateTime rangeStart,
+                                   @Param("rangeEnd") LocalDateTime rangeEnd,
+                                   @Param("afterId") Long afterId,
+                                   Limit limit);
 }
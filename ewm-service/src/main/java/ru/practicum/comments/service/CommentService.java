@@ -13,6 +13,7 @@ import ru.practicum.event.service.EventService;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.DateValidationException;
 import ru.practicum.extention.NotFoundException;
+import ru.practicum.pagination.PageCursor;
 import ru.practicum.user.model.User;
 import ru.practicum.comments.model.CommentMapper;
 import ru.practicum.user.service.UserService;
@@ -64,6 +65,15 @@ public class CommentService {
                 .toList();
     }
 
+    @Transactional
+    public List<CommentDto> getCommentsByUserIdAfter(String rangeStart, String rangeEnd, Long userId, PageCursor after, Integer size) {
+        userService.findById(userId);
+        Map<String, LocalDateTime> dateRange = getDateRange(rangeStart, rangeEnd);
+        List<Comment> comments = commentRepository.getCommentsByUserIdAfter(userId, dateRange.get("startTime"), dateRange.get("endTime"),
+                after.getId(), PageCursor.limit(size));
+        return CommentMapper.toCommentDtoList(comments);
+    }
+
     @Transactional
     public List<CommentDto> getComments(String rangeStart, String rangeEnd, Integer from, Integer size) {
         Map<String, LocalDateTime> dateRange = getDateRange(rangeStart, rangeEnd);
@@ -71,6 +81,14 @@ public class CommentService {
         return CommentMapper.toCommentDtoList(commentList);
     }
 
+    @Transactional
+    public List<CommentDto> getCommentsAfter(String rangeStart, String rangeEnd, PageCursor after, Integer size) {
+        Map<String, LocalDateTime> dateRange = getDateRange(rangeStart, rangeEnd);
+        List<Comment> commentList = commentRepository.getCommentsAfter(dateRange.get("startTime"), dateRange.get("endTime"),
+                after.getId(), PageCursor.limit(size));
+        return CommentMapper.toCommentDtoList(commentList);
+    }
+
     @Transactional
     public void deleteAdminComment(Long commentId) {
         findCommentById(commentId);
@@ -85,6 +103,15 @@ public class CommentService {
         return CommentMapper.toCommentDtoList(commentList);
     }
 
+    @Transactional
+    public List<CommentDto> getCommentsByEventIdAfter(String rangeStart, String rangeEnd, Long eventId, PageCursor after, Integer size) {
+        eventService.findEventById(eventId);
+        Map<String, LocalDateTime> dateRange = getDateRange(rangeStart, rangeEnd);
+        List<Comment> commentList = commentRepository.getCommentsByEventIdAfter(eventId, dateRange.get("startTime"), dateRange.get("endTime"),
+                after.getId(), PageCursor.limit(size));
+        return CommentMapper.toCommentDtoList(commentList);
+    }
+
     public CommentDto findById(Long commentId) {
         return CommentMapper.toCommentDto(findCommentById(commentId));
     }
@@ -2,15 +2,19 @@ package ru.practicum.compilation.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.compilation.model.CompilationDto;
 import ru.practicum.compilation.service.CompilationService;
+import ru.practicum.version.ResourceVersions;
 
 import java.util.List;
 
@@ -21,18 +25,31 @@ import java.util.List;
 @Validated
 public class CommonCompilationController {
     private final CompilationService compilationService;
+    private final ResourceVersions resourceVersions;
 
     @GetMapping
     public ResponseEntity<List<CompilationDto>> findAll(@RequestParam(required = false) Boolean pinned,
                                                         @RequestParam(defaultValue = "0") Integer from,
-                                                        @RequestParam(defaultValue = "10") Integer size) {
+                                                        @RequestParam(defaultValue = "10") Integer size,
+                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Получен запрос GET /compilations");
-        return ResponseEntity.ok(compilationService.findAll(pinned, from, size));
+        String etag = resourceVersions.etag(ResourceVersions.COMPILATIONS);
+        if (ResourceVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(compilationService.findAll(pinned, from, size));
     }
 
     @GetMapping("/{compId}")
-    public ResponseEntity<CompilationDto> findById(@PathVariable Long compId) {
+    public ResponseEntity<CompilationDto> findById(@PathVariable Long compId,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Получен запрос GET /compilations/{}", compId);
-        return ResponseEntity.ok(compilationService.findById(compId));
+        String etag = resourceVersions.etag(ResourceVersions.COMPILATIONS);
+        // Поиск до сравнения версий: несуществующая подборка отвечает 404, а не 304
+        CompilationDto compilation = compilationService.findById(compId);
+        if (ResourceVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(compilation);
     }
 }
@@ -9,6 +9,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.NamedAttributeNode;
+import jakarta.persistence.NamedEntityGraph;
+import jakarta.persistence.NamedSubgraph;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,12 +22,21 @@ import ru.practicum.event.model.Event;
 import java.util.Set;
 
 @Entity(name = "compilations")
+@NamedEntityGraph(name = Compilation.WITH_EVENTS,
+        attributeNodes = @NamedAttributeNode(value = "events", subgraph = "events"),
+        subgraphs = @NamedSubgraph(name = "events", attributeNodes = {
+                @NamedAttributeNode("category"),
+                @NamedAttributeNode("initiator")
+        }))
 @Builder
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Compilation {
+    // Подборки вместе с событиями, их категориями и инициаторами одним запросом
+    public static final String WITH_EVENTS = "Compilation.withEvents";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -6,7 +6,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventShortDto;
 
 import java.util.List;
 
@@ -20,5 +20,5 @@ public class CompilationDto {
     @Size(max = 50, message = "Название подборки не должно превышать 50 символов")
     private String title;
     private Boolean pinned;
-    private List<Event> events;
+    private List<EventShortDto> events;
 }
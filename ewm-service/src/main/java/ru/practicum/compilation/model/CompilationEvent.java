@@ -0,0 +1,24 @@
+package ru.practicum.compilation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+// Плоская проекция события подборки для constructor expression: без TEXT-полей и прокси Hibernate
+@Getter
+@AllArgsConstructor
+public class CompilationEvent {
+    private Long compilationId;
+    private Long id;
+    private String title;
+    private String annotation;
+    private Long categoryId;
+    private String categoryName;
+    private Long initiatorId;
+    private String initiatorName;
+    private LocalDateTime eventDate;
+    private Boolean paid;
+    private Long confirmedRequests;
+    private Long views;
+}
@@ -1,7 +1,13 @@
 package ru.practicum.compilation.model;
 
+import ru.practicum.category.model.CategoryDto;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventMapper;
+import ru.practicum.event.model.EventShortDto;
+import ru.practicum.user.model.UserShortDto;
 
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
 
 public class CompilationMapper {
@@ -22,11 +28,32 @@ public class CompilationMapper {
     }
 
     public static CompilationDto toCompilationDto(Compilation compilation) {
+        return toCompilationDto(compilation, compilation.getEvents().stream()
+                .sorted(Comparator.comparing(Event::getId))
+                .map(EventMapper::toEventShortDto)
+                .toList());
+    }
+
+    public static CompilationDto toCompilationDto(Compilation compilation, List<EventShortDto> events) {
         return CompilationDto.builder()
                 .id(compilation.getId())
                 .title(compilation.getTitle())
                 .pinned(compilation.getPinned())
-                .events(compilation.getEvents().stream().toList())
+                .events(events)
+                .build();
+    }
+
+    public static EventShortDto toEventShortDto(CompilationEvent event) {
+        return EventShortDto.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .annotation(event.getAnnotation())
+                .category(new CategoryDto(event.getCategoryId(), event.getCategoryName()))
+                .initiator(new UserShortDto(event.getInitiatorId(), event.getInitiatorName()))
+                .eventDate(event.getEventDate())
+                .paid(event.getPaid())
+                .confirmedRequests(event.getConfirmedRequests())
+                .views(event.getViews())
                 .build();
     }
 }
@@ -1,20 +1,30 @@
 package ru.practicum.compilation.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.compilation.model.Compilation;
+import ru.practicum.compilation.model.CompilationEvent;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
     List<Compilation> findByTitleIgnoreCase(String title);
 
+    @Override
+    @EntityGraph(Compilation.WITH_EVENTS)
+    Optional<Compilation> findById(Long id);
+
     @Query("SELECT c FROM compilations c " +
-            "WHERE (:pinned IS NULL OR c.pinned = :pinned)")
-    List<Compilation> findCompilations(Boolean pinned, Pageable pageable);
+            "WHERE (:pinned IS NULL OR c.pinned = :pinned) " +
+            "ORDER BY c.id ASC")
+    List<Compilation> findCompilations(@Param("pinned") Boolean pinned, Pageable pageable);
 
     default List<Compilation> findCompilations(Boolean pinned, Integer from, Integer size) {
         Pageable pageable = Pageable.unpaged();
@@ -23,4 +33,15 @@ public interface CompilationRepository extends JpaRepository<Compilation, Long>
         }
         return findCompilations(pinned, pageable);
     }
+
+    // События всех подборок страницы одним запросом, только поля краткого представления
+    @Query("SELECT new ru.practicum.compilation.model.CompilationEvent(c.id, e.id, e.title, e.annotation, " +
+            "cat.id, cat.name, u.id, u.name, e.eventDate, e.paid, e.confirmedRequests, e.views) " +
+            "FROM compilations c " +
+            "JOIN c.events e " +
+            "JOIN e.category cat " +
+            "JOIN e.initiator u " +
+            "WHERE c.id IN :ids " +
+            "ORDER BY c.id ASC, e.id ASC")
+    List<CompilationEvent> findCompilationEvents(@Param("ids") Collection<Long> compilationIds);
 }
@@ -1,38 +1,66 @@
 package ru.practicum.compilation.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import ru.practicum.CacheConfig;
 import ru.practicum.compilation.model.Compilation;
 import ru.practicum.compilation.model.CompilationDto;
+import ru.practicum.compilation.model.CompilationEvent;
 import ru.practicum.compilation.model.CompilationMapper;
 import ru.practicum.compilation.model.NewCompilationDto;
 import ru.practicum.compilation.model.UpdateCompilationRequest;
 import ru.practicum.compilation.repository.CompilationRepository;
 import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventShortDto;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.NotFoundException;
+import ru.practicum.version.ResourceVersions;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CompilationService {
+    private static final String VERSION_KEY = "@resourceVersions.etag('" + ResourceVersions.COMPILATIONS + "')";
+
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
+    private final ResourceVersions resourceVersions;
 
+    // Версия подборок в ключе: после touch ответ читается заново и совпадает с новым ETag
+    @Cacheable(cacheNames = CacheConfig.COMPILATIONS, key = VERSION_KEY + " + ':page:' + #pinned + ':' + #from + ':' + #size")
     public List<CompilationDto> findAll(Boolean pinned, Integer from, Integer size) {
-        return compilationRepository.findCompilations(pinned, from, size).stream().map(CompilationMapper::toCompilationDto).toList();
+        List<Compilation> compilations = compilationRepository.findCompilations(pinned, from, size);
+        if (compilations.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<EventShortDto>> events = compilationRepository.findCompilationEvents(
+                        compilations.stream().map(Compilation::getId).toList()).stream()
+                .collect(Collectors.groupingBy(CompilationEvent::getCompilationId,
+                        Collectors.mapping(CompilationMapper::toEventShortDto, Collectors.toList())));
+
+        return compilations.stream()
+                .map(compilation -> CompilationMapper.toCompilationDto(compilation,
+                        events.getOrDefault(compilation.getId(), List.of())))
+                .toList();
     }
 
+    @Cacheable(cacheNames = CacheConfig.COMPILATIONS, key = VERSION_KEY + " + ':' + #compId")
     public CompilationDto findById(Long compId) {
         return compilationRepository.findById(compId)
                 .map(CompilationMapper::toCompilationDto)
-                .orElse(null);
+                .orElseThrow(() -> new NotFoundException("Подборка с id=" + compId + " не найдена"));
     }
 
+    @CacheEvict(cacheNames = CacheConfig.COMPILATIONS, allEntries = true)
     public CompilationDto create(NewCompilationDto compilationDto) {
         if (!compilationRepository.findByTitleIgnoreCase(compilationDto.getTitle()).isEmpty()) {
             throw new ConditionsNotMetException("Подборка с названием " + compilationDto.getTitle() + " уже существует");
@@ -43,11 +71,12 @@ public class CompilationService {
             events = new HashSet<>(eventRepository.findAllByIdIn(compilationDto.getEvents().stream().toList()));
         }
 
-        return CompilationMapper.toCompilationDto(
-                compilationRepository.save(CompilationMapper.newCompilationDtoToCompilation(compilationDto, events))
-        );
+        Compilation saved = compilationRepository.save(CompilationMapper.newCompilationDtoToCompilation(compilationDto, events));
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
+        return CompilationMapper.toCompilationDto(saved);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.COMPILATIONS, allEntries = true)
     public CompilationDto update(Long compilationId, UpdateCompilationRequest updateCompilationRequest) {
         Compilation compilation = compilationRepository.findById(compilationId).orElseThrow(() -> new NotFoundException("Подборка с id=" + compilationId + " не найдена"));
 
@@ -71,11 +100,15 @@ public class CompilationService {
             compilation.setPinned(updateCompilationRequest.getPinned());
         }
 
-        return CompilationMapper.toCompilationDto(compilationRepository.save(compilation));
+        Compilation saved = compilationRepository.save(compilation);
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
+        return CompilationMapper.toCompilationDto(saved);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.COMPILATIONS, allEntries = true)
     public void delete(Long compilationId) {
         compilationRepository.findById(compilationId).orElseThrow(() -> new NotFoundException("Подборка c id=" + compilationId + " не найдена"));
         compilationRepository.deleteById(compilationId);
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
     }
 }
@@ -0,0 +1,17 @@
+package ru.practicum.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class PinnedThreadsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    public PinnedThreadsMonitor pinnedThreadsMonitor(MeterRegistry meterRegistry, Environment environment) {
+        return new PinnedThreadsMonitor(meterRegistry, environment, "EWMServiceApp.virtual-threads");
+    }
+}
@@ -5,10 +5,13 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -16,6 +19,7 @@ import ru.practicum.event.model.EventDto;
 import ru.practicum.event.model.EventSearchCommon;
 import ru.practicum.event.model.EventSearchOrder;
 import ru.practicum.event.service.EventService;
+import ru.practicum.version.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -58,9 +62,14 @@ public class CommonEventController {
     }
 
     @GetMapping("/{eventId}")
-    public ResponseEntity<EventDto> findById(@PathVariable long eventId) {
+    public ResponseEntity<EventDto> findById(@PathVariable long eventId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Получен запрос GET /events/{}", eventId);
-        return ResponseEntity.ok(service.findById(eventId));
+        String etag = service.getEventEtag(eventId);
+        if (ResourceVersions.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(service.findById(eventId));
     }
 
 }
\ No newline at end of file
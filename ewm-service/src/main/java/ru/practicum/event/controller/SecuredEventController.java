@@ -18,12 +18,15 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.event.model.EventDto;
 import ru.practicum.event.model.UpdateEventDto;
 import ru.practicum.event.service.EventService;
+import ru.practicum.pagination.PageCursor;
 import ru.practicum.request.model.EventRequestStatusUpdateRequest;
 import ru.practicum.request.model.EventRequestStatusUpdateResult;
 import ru.practicum.request.model.ParticipationRequestDto;
+import ru.practicum.request.model.ParticipationRequestStatus;
 import ru.practicum.request.service.ParticipationRequestService;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -37,9 +40,13 @@ public class SecuredEventController {
     @GetMapping
     public ResponseEntity<List<EventDto>> getEventsByUserId(@PathVariable Long userId,
                                                             @RequestParam(defaultValue = "0") Integer from,
-                                                            @RequestParam(defaultValue = "10") Integer size) {
+                                                            @RequestParam(defaultValue = "10") Integer size,
+                                                            @RequestParam(required = false) String after) {
         log.info("Получен запрос GET /users/{}/events", userId);
-        return ResponseEntity.ok(eventService.findByUserId(userId, from, size));
+        List<EventDto> events = after != null
+                ? eventService.findByUserIdAfter(userId, PageCursor.decode(after), size)
+                : eventService.findByUserId(userId, from, size);
+        return PageCursor.toResponse(events, size, event -> PageCursor.of(event.getEventDate(), event.getId()));
     }
 
     @GetMapping("/{eventId}")
@@ -56,6 +63,13 @@ public class SecuredEventController {
         return ResponseEntity.ok(participationRequestService.getAllByEventAndInitiator(userId, eventId));
     }
 
+    @GetMapping("/{eventId}/requests/counts")
+    public ResponseEntity<Map<ParticipationRequestStatus, Long>> getRequestCounts(@PathVariable Long userId,
+                                                                                  @PathVariable Long eventId) {
+        log.info("Получен запрос GET /users/{}/events/{}/requests/counts", userId, eventId);
+        return ResponseEntity.ok(participationRequestService.getStatusCounts(userId, eventId));
+    }
+
     @PostMapping()
     @ResponseStatus(HttpStatus.CREATED)
     public EventDto create(@PathVariable Long userId,
@@ -37,9 +37,22 @@ public class Event {
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
 
-    @Column(name = "confirmed_requests", nullable = false)
+    // Счётчик меняется только атомарными запросами EventRepository, сохранение сущности его не перезаписывает
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
     private Long confirmedRequests = 0L;
 
+    @Builder.Default
+    @Column(name = "pending_requests", nullable = false, updatable = false)
+    private Long pendingRequests = 0L;
+
+    @Builder.Default
+    @Column(name = "rejected_requests", nullable = false, updatable = false)
+    private Long rejectedRequests = 0L;
+
+    @Builder.Default
+    @Column(name = "canceled_requests", nullable = false, updatable = false)
+    private Long canceledRequests = 0L;
+
     @Column(name = "created_on", nullable = false)
     private LocalDateTime createdOn;
 
@@ -78,6 +91,7 @@ public class Event {
     @Column(nullable = false)
     private String title;
 
-    @Column
+    // Просмотры записывает только EventViewsCache через updateViews
+    @Column(updatable = false)
     private Long views;
 }
@@ -4,6 +4,7 @@ import ru.practicum.category.model.Category;
 import ru.practicum.category.model.CategoryMapper;
 import ru.practicum.user.model.User;
 import ru.practicum.user.model.UserMapper;
+import ru.practicum.user.model.UserShortDto;
 
 import java.time.LocalDateTime;
 
@@ -29,6 +30,19 @@ public class EventMapper {
                 .build();
     }
 
+    public static EventShortDto toEventShortDto(Event event) {
+        return EventShortDto.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .annotation(event.getAnnotation())
+                .category(CategoryMapper.categoryToDto(event.getCategory()))
+                .initiator(new UserShortDto(event.getInitiator().getId(), event.getInitiator().getName()))
+                .eventDate(event.getEventDate())
+                .paid(event.getPaid())
+                .confirmedRequests(event.getConfirmedRequests())
+                .views(event.getViews())
+                .build();
+    }
 
     public static Event newRequestToEvent(EventDto eventDto, User user, Category category) {
         return Event.builder()
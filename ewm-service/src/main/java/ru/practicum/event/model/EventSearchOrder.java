@@ -2,5 +2,6 @@ package ru.practicum.event.model;
 
 public enum EventSearchOrder {
     EVENT_DATE,
-    VIEWS
+    VIEWS,
+    RELEVANCE
 }
@@ -0,0 +1,28 @@
+package ru.practicum.event.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import ru.practicum.category.model.CategoryDto;
+import ru.practicum.user.model.UserShortDto;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventShortDto {
+    private Long id;
+    private String title;
+    private String annotation;
+    private CategoryDto category;
+    private UserShortDto initiator;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime eventDate;
+    private Boolean paid;
+    private Long confirmedRequests;
+    private Long views;
+}
@@ -1,7 +1,9 @@
 package ru.practicum.event.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,11 +16,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventViewsRepository {
     @Query("SELECT e FROM events e " +
-            "WHERE (LOWER(e.annotation) LIKE LOWER(CONCAT('%', :text, '%')) " +
-            "OR LOWER(e.description) LIKE LOWER(CONCAT('%', :text, '%')) " +
-            "OR LOWER(e.title) LIKE LOWER(CONCAT('%', :text, '%')) OR :text IS NULL) " +
+            "WHERE (:text IS NULL OR function('event_text_match', e.title, e.annotation, e.description, :text) = TRUE) " +
             "AND (:paid IS NULL OR e.paid = :paid) " +
             "AND (:categories IS NULL OR e.category.id IN :categories) " +
             "AND ((CAST(:rangeStart as DATE) IS NULL AND CAST(:rangeEnd as DATE) IS NULL AND e.eventDate > :currentTime) " +
@@ -30,7 +30,9 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "AND e.state = :state " +
             "ORDER BY " +
             "CASE WHEN :sort = 'EVENT_DATE' THEN e.eventDate END ASC, " +
-            "CASE WHEN :sort = 'VIEWS' THEN e.views END DESC")
+            "CASE WHEN :sort = 'VIEWS' THEN COALESCE(e.views, 0) END DESC, " +
+            "CASE WHEN :sort = 'RELEVANCE' THEN function('event_text_rank', e.title, e.annotation, e.description, :text) END DESC, " +
+            "e.id ASC")
     List<Event> findCommonEventsByFilters(
             @Param("text") String text,
             @Param("paid") Boolean paid,
@@ -97,9 +99,18 @@ public interface EventRepository extends JpaRepository<Event, Long> {
 
     @Query("SELECT e FROM events e " +
             "WHERE e.initiator.id = :user " +
-            "ORDER BY e.eventDate DESC")
+            "ORDER BY e.eventDate DESC, e.id DESC")
     List<Event> findAllByInitiatorId(@Param("user") Long userId, Pageable pageable);
 
+    @Query("SELECT e FROM events e " +
+            "WHERE e.initiator.id = :user " +
+            "AND (e.eventDate < :eventDate OR (e.eventDate = :eventDate AND e.id < :afterId)) " +
+            "ORDER BY e.eventDate DESC, e.id DESC")
+    List<Event> findAllByInitiatorIdAfter(@Param("user") Long userId,
+                                          @Param("eventDate") LocalDateTime eventDate,
+                                          @Param("afterId") Long afterId,
+                                          Limit limit);
+
     default List<Event> findAllByInitiatorId(Long userId, Integer from, Integer size) {
         if (from != null && size != null) {
             return findAllByInitiatorId(userId, Pageable.ofSize(size).withPage(from / size));
@@ -107,6 +118,34 @@ public interface EventRepository extends JpaRepository<Event, Long> {
         return findAllByInitiatorId(userId, Pageable.unpaged());
     }
 
+    // Места резервируются одним условным UPDATE: строка события блокируется, лимит проверяется по актуальному значению
+    @Modifying
+    @Query("UPDATE events e SET e.confirmedRequests = e.confirmedRequests + :count " +
+            "WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + :count <= e.participantLimit)")
+    int incrementConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    @Modifying
+    @Query("UPDATE events e SET e.confirmedRequests = e.confirmedRequests - :count " +
+            "WHERE e.id = :eventId " +
+            "AND e.confirmedRequests >= :count")
+    int decrementConfirmedRequests(@Param("eventId") Long eventId, @Param("count") long count);
+
+    @Modifying
+    @Query("UPDATE events e SET e.pendingRequests = e.pendingRequests + :pending, " +
+            "e.rejectedRequests = e.rejectedRequests + :rejected, " +
+            "e.canceledRequests = e.canceledRequests + :canceled " +
+            "WHERE e.id = :eventId")
+    int shiftRequestCounters(@Param("eventId") Long eventId,
+                             @Param("pending") long pending,
+                             @Param("rejected") long rejected,
+                             @Param("canceled") long canceled);
+
+    @Query("SELECT e.confirmedRequests FROM events e WHERE e.id = :eventId")
+    Long findConfirmedRequestsById(@Param("eventId") Long eventId);
+
+    boolean existsByIdAndState(Long id, EventState state);
+
     List<Event> findAllByCategoryId(Long categoryId);
 
     List<Event> findAllByIdIn(List<Long> list);
@@ -0,0 +1,49 @@
+package ru.practicum.event.repository;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+// Выражение на PostgreSQL должно совпадать с GIN-индексами из schema-postgresql.sql
+public class EventSearchFunctionContributor implements FunctionContributor {
+    public static final String MATCH = "event_text_match";
+    public static final String RANK = "event_text_rank";
+
+    private static final String PG_VECTOR = "(setweight(to_tsvector('russian', coalesce(?1, '')), 'A') || "
+            + "setweight(to_tsvector('russian', coalesce(?2, '')), 'B') || "
+            + "setweight(to_tsvector('russian', coalesce(?3, '')), 'C'))";
+    private static final String PG_QUERY = "websearch_to_tsquery('russian', ?4)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.BOOLEAN);
+        BasicType<Double> doubleType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE);
+
+        if (functionContributions.getDialect() instanceof PostgreSQLDialect) {
+            functionContributions.getFunctionRegistry().registerPattern(MATCH,
+                    "(" + PG_VECTOR + " @@ " + PG_QUERY
+                            + " or ?1 ilike ('%' || ?4 || '%')"
+                            + " or ?2 ilike ('%' || ?4 || '%')"
+                            + " or ?3 ilike ('%' || ?4 || '%'))",
+                    booleanType);
+            functionContributions.getFunctionRegistry().registerPattern(RANK,
+                    "ts_rank(" + PG_VECTOR + ", " + PG_QUERY + ")",
+                    doubleType);
+        } else {
+            functionContributions.getFunctionRegistry().registerPattern(MATCH,
+                    "(lower(?1) like lower('%' || ?4 || '%')"
+                            + " or lower(?2) like lower('%' || ?4 || '%')"
+                            + " or lower(?3) like lower('%' || ?4 || '%'))",
+                    booleanType);
+            functionContributions.getFunctionRegistry().registerPattern(RANK,
+                    "(case when lower(?1) like lower('%' || ?4 || '%') then 1.0 else 0 end"
+                            + " + case when lower(?2) like lower('%' || ?4 || '%') then 0.4 else 0 end"
+                            + " + case when lower(?3) like lower('%' || ?4 || '%') then 0.2 else 0 end)",
+                    doubleType);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.event.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+public interface EventViewsRepository {
+    Set<Long> updateViews(Map<Long, Long> views);
+
+    Map<Long, Long> findViews(Collection<Long> eventIds);
+
+    boolean existsInCompilations(Collection<Long> eventIds);
+}
@@ -0,0 +1,66 @@
+package ru.practicum.event.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class EventViewsRepositoryImpl implements EventViewsRepository {
+    private static final String UPDATE_VIEWS = "UPDATE events SET views = ? WHERE id = ? AND views IS DISTINCT FROM ?";
+    private static final String FIND_VIEWS = "SELECT id, views FROM events WHERE views IS NOT NULL AND id IN (%s)";
+    private static final String EXISTS_IN_COMPILATIONS = "SELECT COUNT(*) FROM events_compilations WHERE event_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<Long> updateViews(Map<Long, Long> views) {
+        if (views.isEmpty()) {
+            return Set.of();
+        }
+        List<Map.Entry<Long, Long>> entries = List.copyOf(views.entrySet());
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_VIEWS, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setLong(3, entry.getValue());
+        })[0];
+        // Драйвер может не сообщить число строк (SUCCESS_NO_INFO) — такое событие считается изменённым
+        Set<Long> changed = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                changed.add(entries.get(i).getKey());
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public Map<Long, Long> findViews(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = List.copyOf(eventIds);
+        String sql = String.format(FIND_VIEWS, String.join(",", Collections.nCopies(ids.size(), "?")));
+        Map<Long, Long> views = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            views.put(rs.getLong("id"), rs.getLong("views"));
+        }, ids.toArray());
+        return views;
+    }
+
+    @Override
+    public boolean existsInCompilations(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return false;
+        }
+        String sql = String.format(EXISTS_IN_COMPILATIONS, String.join(",", Collections.nCopies(eventIds.size(), "?")));
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, eventIds.toArray());
+        return count != null && count > 0;
+    }
+}
@@ -1,7 +1,10 @@
 package ru.practicum.event.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import ru.practicum.CacheConfig;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.repository.CategoryRepository;
 import ru.practicum.event.model.Event;
@@ -18,15 +21,15 @@ import ru.practicum.event.repository.EventRepository;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.DateValidationException;
 import ru.practicum.extention.NotFoundException;
+import ru.practicum.pagination.PageCursor;
 import ru.practicum.user.model.User;
 import jakarta.transaction.Transactional;
-import ru.practicum.dto.StatsDto;
 import ru.practicum.user.service.UserService;
-import ru.practicum.utils.SimpleDateTimeFormatter;
-import ru.practicum.StatsClient;
+import ru.practicum.version.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -34,13 +37,16 @@ public class EventService {
     private final EventRepository eventRepository;
     private final CategoryRepository categoryRepository;
     private final UserService userService;
-    private final StatsClient statsClient;
+    private final EventViewsCache viewsCache;
+    private final ResourceVersions resourceVersions;
 
     public List<EventDto> findByUserId(Long userId, Integer from, Integer size) {
-        return eventRepository.findAllByInitiatorId(userId, from, size)
-                .stream()
-                .map(EventMapper::toEventDto)
-                .toList();
+        return toEventDtosWithViews(eventRepository.findAllByInitiatorId(userId, from, size));
+    }
+
+    public List<EventDto> findByUserIdAfter(Long userId, PageCursor after, Integer size) {
+        return toEventDtosWithViews(eventRepository.findAllByInitiatorIdAfter(userId, after.getDateKey(), after.getId(),
+                PageCursor.limit(size)));
     }
 
     public EventDto findByIdAndUser(Long userId, Long eventId) {
@@ -55,24 +61,23 @@ public class EventService {
     }
 
     @Transactional
+    @Cacheable(cacheNames = CacheConfig.EVENTS, key = "#search")
     public List<EventDto> searchCommon(EventSearchCommon search) {
         if (search.getRangeEnd() != null && search.getRangeStart() != null &&
                 search.getRangeEnd().isBefore(search.getRangeStart())) {
             throw new DateValidationException("Дата начала не должна быть позже даты окончания");
         }
 
+        // Сортировка по просмотрам и пагинация выполняются в базе по events.views, которые сохраняет
+        // кэш просмотров; пересортировка страницы по свежим значениям из кэша нарушила бы порядок между страницами
         List<Event> events = eventRepository.findCommonEventsByFilters(search);
-        return events.stream()
-                .map(EventMapper::toEventDto)
-                .toList();
+        return toEventDtosWithViews(events);
     }
 
     @Transactional
     public List<EventDto> searchAdmin(EventSearchAdmin search) {
         List<Event> events = eventRepository.findAdminEventsByFilters(search);
-        return events.stream()
-                .map(EventMapper::toEventDto)
-                .toList();
+        return toEventDtosWithViews(events);
     }
 
     @Transactional
@@ -83,10 +88,9 @@ public class EventService {
             throw new NotFoundException("Событие с id=" + eventId + " не найдено");
         }
 
-        event.setViews(getViews(event.getId()));
-        eventRepository.save(event);
-
-        return EventMapper.toEventDto(event);
+        EventDto eventDto = EventMapper.toEventDto(event);
+        eventDto.setViews(viewsCache.get(event.getId()));
+        return eventDto;
     }
 
     @Transactional
@@ -96,13 +100,28 @@ public class EventService {
         return event;
     }
 
-    private Long getViews(Long id) {
-        List<StatsDto> result = statsClient.getStats("1900-01-01 00:00:00",
-                SimpleDateTimeFormatter.toString(LocalDateTime.now().plusMinutes(2)),
-                List.of("/events/" + id),
-                true);
+    // Просмотры входят в ответ, поэтому входят и в ETag
+    public String getEventEtag(Long eventId) {
+        if (!eventRepository.existsByIdAndState(eventId, EventState.PUBLISHED)) {
+            throw new NotFoundException("Событие с id=" + eventId + " не найдено");
+        }
+        return resourceVersions.etag(ResourceVersions.event(eventId), viewsCache.get(eventId));
+    }
+
+    private void touch(Long eventId) {
+        resourceVersions.touch(ResourceVersions.event(eventId));
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
+    }
 
-        return result.isEmpty() ? 0L : result.getFirst().getHits();
+    private List<EventDto> toEventDtosWithViews(List<Event> events) {
+        Map<Long, Long> views = viewsCache.getAll(events.stream().map(Event::getId).toList());
+        return events.stream()
+                .map(event -> {
+                    EventDto eventDto = EventMapper.toEventDto(event);
+                    eventDto.setViews(views.getOrDefault(event.getId(), 0L));
+                    return eventDto;
+                })
+                .toList();
     }
 
     public EventDto create(Long userId, EventDto newEventDto) {
@@ -118,6 +137,8 @@ public class EventService {
         return created;
     }
 
+    // Публикация и правка события меняют публичную выдачу и состав подборок
+    @CacheEvict(cacheNames = {CacheConfig.EVENTS, CacheConfig.COMPILATIONS}, allEntries = true)
     public EventDto updateByAdmin(long eventId, UpdateAdminEventDto eventDto) {
         Event event = findEventById(eventId);
         LocalDateTime eventDate = eventDto.getEventDate() == null ? event.getEventDate() : eventDto.getEventDate();
@@ -147,7 +168,9 @@ public class EventService {
         event.setLat(eventDto.getLocation() == null ? event.getLat() : eventDto.getLocation().getLat());
         event.setLon(eventDto.getLocation() == null ? event.getLon() : eventDto.getLocation().getLon());
 
-        return EventMapper.toEventDto(eventRepository.save(event));
+        Event saved = eventRepository.save(event);
+        touch(saved.getId());
+        return EventMapper.toEventDto(saved);
     }
 
     public EventDto updateByUser(Long userId, Long eventId, UpdateEventDto eventDto) {
@@ -188,6 +211,8 @@ public class EventService {
         event.setLat(eventDto.getLocation() == null ? event.getLat() : eventDto.getLocation().getLat());
         event.setLon(eventDto.getLocation() == null ? event.getLon() : eventDto.getLocation().getLon());
 
-        return EventMapper.toEventDto(eventRepository.save(event));
+        Event saved = eventRepository.save(event);
+        touch(saved.getId());
+        return EventMapper.toEventDto(saved);
     }
 }
@@ -0,0 +1,147 @@
+package ru.practicum.event.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.version.ResourceVersions;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class EventViewsCache {
+    private final EventViewsResolver viewsResolver;
+    private final EventRepository eventRepository;
+    private final ResourceVersions resourceVersions;
+    private final LoadingCache<Long, Long> cache;
+    private final Map<Long, Long> dirty = new ConcurrentHashMap<>();
+
+    public EventViewsCache(EventViewsResolver viewsResolver,
+                           EventRepository eventRepository,
+                           ResourceVersions resourceVersions,
+                           @Value("${EWMServiceApp.views-cache.maximum-size:10000}") long maximumSize,
+                           @Value("${EWMServiceApp.views-cache.refresh-after-write:30s}") Duration refreshAfterWrite,
+                           @Value("${EWMServiceApp.views-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.viewsResolver = viewsResolver;
+        this.eventRepository = eventRepository;
+        this.resourceVersions = resourceVersions;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .build(new ViewsLoader());
+    }
+
+    public Long get(Long eventId) {
+        return cache.get(eventId);
+    }
+
+    public Map<Long, Long> getAll(Collection<Long> eventIds) {
+        return cache.getAll(eventIds);
+    }
+
+    // Просмотры сохраняются в events.views пачкой раз в flush-interval
+    @Scheduled(fixedDelayString = "${EWMServiceApp.views-cache.flush-interval:30000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> batch = new HashMap<>();
+        for (Long eventId : Set.copyOf(dirty.keySet())) {
+            Long views = dirty.remove(eventId);
+            if (views != null) {
+                batch.put(eventId, views);
+            }
+        }
+        try {
+            Set<Long> changed = eventRepository.updateViews(batch);
+            // Подборки отдают просмотры из events.views, их версия меняется только вместе с ними
+            if (!changed.isEmpty() && eventRepository.existsInCompilations(changed)) {
+                resourceVersions.touch(ResourceVersions.COMPILATIONS);
+            }
+            log.debug("Сохранены просмотры {} событий, изменились у {}", batch.size(), changed.size());
+        } catch (RuntimeException e) {
+            batch.forEach(dirty::putIfAbsent);
+            log.error("Не удалось сохранить просмотры событий: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private class ViewsLoader implements CacheLoader<Long, Long> {
+        @Override
+        public Long load(Long eventId) {
+            Long views;
+            try {
+                views = viewsResolver.getViews(eventId);
+            } catch (RuntimeException e) {
+                return lastKnown(Set.of(eventId), e).getOrDefault(eventId, 0L);
+            }
+            dirty.put(eventId, views);
+            return views;
+        }
+
+        @Override
+        public Map<Long, Long> loadAll(Set<? extends Long> eventIds) {
+            Map<Long, Long> views;
+            boolean fresh = true;
+            try {
+                views = new HashMap<>(viewsResolver.getViews(Set.copyOf(eventIds)));
+            } catch (RuntimeException e) {
+                views = new HashMap<>(lastKnown(Set.copyOf(eventIds), e));
+                fresh = false;
+            }
+            for (Long eventId : eventIds) {
+                views.putIfAbsent(eventId, 0L);
+            }
+            if (fresh) {
+                dirty.putAll(views);
+            }
+            return views;
+        }
+
+        @Override
+        public Long reload(Long eventId, Long oldViews) {
+            Long views;
+            try {
+                views = viewsResolver.getViews(eventId);
+            } catch (RuntimeException e) {
+                logFallback(e);
+                return oldViews;
+            }
+            if (!views.equals(oldViews)) {
+                dirty.put(eventId, views);
+            }
+            return views;
+        }
+
+        // Значения из events.views не попадают в dirty: база уже хранит их
+        private Map<Long, Long> lastKnown(Set<Long> eventIds, RuntimeException e) {
+            logFallback(e);
+            return eventRepository.findViews(eventIds);
+        }
+
+        private void logFallback(RuntimeException e) {
+            if (e instanceof CallNotPermittedException) {
+                log.debug("Сервис статистики недоступен, используются последние известные просмотры");
+            } else {
+                log.warn("Не удалось получить просмотры из сервиса статистики: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.event.service;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.AsyncStatsClient;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.utils.SimpleDateTimeFormatter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@Component
+public class EventViewsResolver {
+    private static final String EVENT_URI_PREFIX = "/events/";
+    private static final String STATS_START = "1900-01-01 00:00:00";
+
+    private final AsyncStatsClient statsClient;
+    private final CircuitBreaker statsCircuitBreaker;
+    private final int urisPerRequest;
+
+    public EventViewsResolver(AsyncStatsClient statsClient,
+                              CircuitBreaker statsCircuitBreaker,
+                              @Value("${EWMServiceApp.stats-service.views.uris-per-request:100}") int urisPerRequest) {
+        this.statsClient = statsClient;
+        this.statsCircuitBreaker = statsCircuitBreaker;
+        this.urisPerRequest = urisPerRequest;
+    }
+
+    public Long getViews(Long eventId) {
+        return getViews(List.of(eventId)).getOrDefault(eventId, 0L);
+    }
+
+    public Map<Long, Long> getViews(Collection<Long> eventIds) {
+        return join(getViewsAsync(eventIds));
+    }
+
+    // Параллельность частей ограничена пулом asyncStatsClient
+    public CompletableFuture<Map<Long, Long>> getViewsAsync(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        List<String> uris = eventIds.stream()
+                .distinct()
+                .map(id -> EVENT_URI_PREFIX + id)
+                .toList();
+        String end = SimpleDateTimeFormatter.toString(LocalDateTime.now().plusMinutes(2));
+
+        List<CompletableFuture<List<StatsDto>>> requests = new ArrayList<>();
+        for (int from = 0; from < uris.size(); from += urisPerRequest) {
+            List<String> chunk = uris.subList(from, Math.min(from + urisPerRequest, uris.size()));
+            requests.add(statsCircuitBreaker.executeCompletionStage(() ->
+                    statsClient.getStats(STATS_START, end, chunk, true)).toCompletableFuture());
+        }
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<Long, Long> views = new HashMap<>();
+                    for (CompletableFuture<List<StatsDto>> request : requests) {
+                        for (StatsDto stat : request.join()) {
+                            Long eventId = toEventId(stat.getUri());
+                            if (eventId != null) {
+                                views.merge(eventId, stat.getHits(), Math::max);
+                            }
+                        }
+                    }
+                    return views;
+                });
+    }
+
+    private Map<Long, Long> join(CompletableFuture<Map<Long, Long>> views) {
+        try {
+            return views.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Long toEventId(String uri) {
+        if (uri == null || !uri.startsWith(EVENT_URI_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(uri.substring(EVENT_URI_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.extention;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
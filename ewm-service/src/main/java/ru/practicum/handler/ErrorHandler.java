@@ -10,7 +10,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.DateValidationException;
+import ru.practicum.extention.InvalidCursorException;
 import ru.practicum.extention.NotFoundException;
+import ru.practicum.extention.ServiceUnavailableException;
 import ru.practicum.handler.model.ApiError;
 import ru.practicum.utils.SimpleDateTimeFormatter;
 
@@ -108,6 +110,30 @@ public class ErrorHandler {
                 .build();
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleInvalidCursorException(final InvalidCursorException e) {
+        return ApiError.builder()
+                .errors(Arrays.stream(e.getStackTrace()).map(StackTraceElement::toString).toList())
+                .status(HttpStatus.BAD_REQUEST.toString())
+                .reason("Некорректный курсор страницы.")
+                .message(e.getMessage())
+                .timestamp(SimpleDateTimeFormatter.toString(LocalDateTime.now()))
+                .build();
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiError handleServiceUnavailableException(final ServiceUnavailableException e) {
+        return ApiError.builder()
+                .errors(Arrays.stream(e.getStackTrace()).map(StackTraceElement::toString).toList())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.toString())
+                .reason("Сервис временно недоступен.")
+                .message(e.getMessage())
+                .timestamp(SimpleDateTimeFormatter.toString(LocalDateTime.now()))
+                .build();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ApiError handleGeneric(final Throwable e) {
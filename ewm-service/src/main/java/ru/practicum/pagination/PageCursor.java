@@ -0,0 +1,80 @@
+package ru.practicum.pagination;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.extention.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+// Непрозрачный курсор keyset-пагинации: ключ сортировки и id последнего элемента страницы
+@Getter
+@EqualsAndHashCode
+@ToString
+public class PageCursor {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final char SEPARATOR = '|';
+
+    private final String key;
+    private final long id;
+
+    private PageCursor(String key, long id) {
+        this.key = key;
+        this.id = id;
+    }
+
+    public static PageCursor of(Long id) {
+        return new PageCursor("", id);
+    }
+
+    public static PageCursor of(LocalDateTime key, Long id) {
+        return new PageCursor(key.toString(), id);
+    }
+
+    public LocalDateTime getDateKey() {
+        try {
+            return LocalDateTime.parse(key);
+        } catch (DateTimeParseException e) {
+            throw new InvalidCursorException("Курсор не соответствует порядку сортировки списка.");
+        }
+    }
+
+    public String encode() {
+        String raw = key + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidCursorException("Некорректный курсор страницы: " + token);
+            }
+            return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Некорректный курсор страницы: " + token);
+        }
+    }
+
+    public static Limit limit(Integer size) {
+        return size != null ? Limit.of(size) : Limit.unlimited();
+    }
+
+    // Полная страница может быть не последней: отдаём курсор на её последний элемент в заголовке
+    public static <T> ResponseEntity<List<T>> toResponse(List<T> items, Integer size, Function<T, PageCursor> cursorOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (size != null && !items.isEmpty() && items.size() >= size) {
+            response.header(NEXT_CURSOR_HEADER, cursorOf.apply(items.get(items.size() - 1)).encode());
+        }
+        return response.body(items);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.request.controller;
 
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -9,11 +10,14 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.request.model.ParticipationRequestDto;
 import ru.practicum.request.service.ParticipationRequestService;
+import ru.practicum.request.service.RequestIdempotencyStore;
+import ru.practicum.request.service.TicketDropAdmission;
 
 import java.util.List;
 
@@ -25,6 +29,8 @@ import java.util.List;
 public class SecuredParticipationRequestController {
 
     private final ParticipationRequestService participationRequestService;
+    private final RequestIdempotencyStore requestIdempotencyStore;
+    private final TicketDropAdmission ticketDropAdmission;
 
     @GetMapping()
     public ResponseEntity<List<ParticipationRequestDto>> getAll(@PathVariable Long userId) {
@@ -34,9 +40,14 @@ public class SecuredParticipationRequestController {
 
     @PostMapping()
     public ResponseEntity<ParticipationRequestDto> create(@PathVariable Long userId,
-                                                          @RequestParam Long eventId) {
+                                                          @RequestParam Long eventId,
+                                                          @RequestHeader(name = "Idempotency-Key", required = false)
+                                                          @Size(max = 255) String idempotencyKey) {
         log.info("Получен запрос POST /users/{}/requests?eventId={}", userId, eventId);
-        return new ResponseEntity<>(participationRequestService.create(userId, eventId), HttpStatus.CREATED);
+        ParticipationRequestDto request = idempotencyKey == null
+                ? createRequest(userId, eventId)
+                : requestIdempotencyStore.execute(userId, idempotencyKey, eventId, () -> createRequest(userId, eventId));
+        return new ResponseEntity<>(request, HttpStatus.CREATED);
     }
 
     @PatchMapping("/{requestId}/cancel")
@@ -45,4 +56,10 @@ public class SecuredParticipationRequestController {
         log.info("Получен запрос PATCH /users/{}/requests/{}/cancel", userId, requestId);
         return ResponseEntity.ok(participationRequestService.cancel(userId, requestId));
     }
-}
\ No newline at end of file
+
+    private ParticipationRequestDto createRequest(Long userId, Long eventId) {
+        return ticketDropAdmission.isEnabled()
+                ? ticketDropAdmission.create(userId, eventId)
+                : participationRequestService.create(userId, eventId);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.practicum.request.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class NewParticipationRequest {
+    Long eventId;
+    Long requesterId;
+    ParticipationRequestStatus status;
+    LocalDateTime created;
+}
@@ -8,6 +8,8 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -19,6 +21,7 @@ import ru.practicum.user.model.User;
 import java.time.LocalDateTime;
 
 @Entity(name = "requests")
+@Table(uniqueConstraints = @UniqueConstraint(name = "UQ_EVENT_WITH_REQUESTER", columnNames = {"event_id", "requester_id"}))
 @Builder
 @Getter
 @Setter
@@ -10,4 +10,14 @@ public class ParticipationRequestMapper {
                 .created(participationRequest.getCreated())
                 .build();
     }
+
+    public static ParticipationRequestDto toParticipationRequestDto(Long id, NewParticipationRequest request) {
+        return ParticipationRequestDto.builder()
+                .id(id)
+                .requester(request.getRequesterId())
+                .event(request.getEventId())
+                .status(request.getStatus())
+                .created(request.getCreated())
+                .build();
+    }
 }
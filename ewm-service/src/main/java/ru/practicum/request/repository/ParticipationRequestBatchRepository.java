@@ -0,0 +1,11 @@
+package ru.practicum.request.repository;
+
+import ru.practicum.request.model.NewParticipationRequest;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ParticipationRequestBatchRepository {
+    // Возвращает id вставленных заявок по id пользователя; уже существующие заявки пропускаются
+    Map<Long, Long> insertAbsent(Long eventId, List<NewParticipationRequest> requests);
+}
@@ -0,0 +1,96 @@
+package ru.practicum.request.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.request.model.NewParticipationRequest;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+@Slf4j
+@RequiredArgsConstructor
+public class ParticipationRequestBatchRepositoryImpl implements ParticipationRequestBatchRepository {
+    private static final String INSERT_ABSENT = "INSERT INTO requests (event_id, requester_id, created, status) " +
+            "SELECT CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(10)) " +
+            "WHERE NOT EXISTS (SELECT 1 FROM requests WHERE event_id = ? AND requester_id = ?)";
+    private static final String FIND_IDS = "SELECT id, requester_id FROM requests WHERE event_id = ? AND requester_id IN (%s)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // При конфликте уникального ключа пачка повторяется по одной заявке, каждая в своей точке сохранения
+    @Override
+    public Map<Long, Long> insertAbsent(Long eventId, List<NewParticipationRequest> requests) {
+        if (requests.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> params = new ArrayList<>();
+        params.add(eventId);
+        try {
+            params.addAll(inSavepoint(() -> insert(eventId, requests)));
+        } catch (DataIntegrityViolationException e) {
+            for (NewParticipationRequest request : requests) {
+                try {
+                    params.addAll(inSavepoint(() -> insert(eventId, List.of(request))));
+                } catch (DataIntegrityViolationException conflict) {
+                    log.debug("Заявка пользователя {} на событие {} не сохранена: {}",
+                            request.getRequesterId(), eventId, conflict.getMessage());
+                }
+            }
+        }
+        if (params.size() == 1) {
+            return Map.of();
+        }
+        String sql = String.format(FIND_IDS, String.join(",", Collections.nCopies(params.size() - 1, "?")));
+        Map<Long, Long> ids = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            ids.put(rs.getLong("requester_id"), rs.getLong("id"));
+        }, params.toArray());
+        return ids;
+    }
+
+    private List<Long> insert(Long eventId, List<NewParticipationRequest> requests) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_ABSENT, requests, requests.size(), (ps, request) -> {
+            ps.setLong(1, eventId);
+            ps.setLong(2, request.getRequesterId());
+            ps.setTimestamp(3, Timestamp.valueOf(request.getCreated()));
+            ps.setString(4, request.getStatus().name());
+            ps.setLong(5, eventId);
+            ps.setLong(6, request.getRequesterId());
+        });
+        List<Long> inserted = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (counts[0][i] > 0) {
+                inserted.add(requests.get(i).getRequesterId());
+            }
+        }
+        return inserted;
+    }
+
+    private <T> T inSavepoint(Supplier<T> action) {
+        Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            T result = action.get();
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.releaseSavepoint(savepoint);
+                return null;
+            });
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            throw e;
+        }
+    }
+}
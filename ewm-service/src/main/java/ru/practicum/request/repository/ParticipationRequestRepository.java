@@ -1,16 +1,47 @@
 package ru.practicum.request.repository;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.request.model.ParticipationRequest;
+import ru.practicum.request.model.ParticipationRequestStatus;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Long> {
+public interface ParticipationRequestRepository extends JpaRepository<ParticipationRequest, Long>,
+        ParticipationRequestBatchRepository {
     List<ParticipationRequest> findAllByRequesterId(Long userId);
 
-    List<ParticipationRequest> findAllByEventIdAndRequesterId(Long eventId, Long userId);
+    boolean existsByEventIdAndRequesterId(Long eventId, Long userId);
 
+    @EntityGraph(attributePaths = "requester")
     List<ParticipationRequest> findAllByEventId(Long eventId);
+
+    @EntityGraph(attributePaths = "requester")
+    List<ParticipationRequest> findAllByEventIdAndIdIn(Long eventId, Collection<Long> ids);
+
+    // Ожидающие заявки блокируются до конца транзакции: их нельзя отменить между чтением и отклонением
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @EntityGraph(attributePaths = "requester")
+    @Query("SELECT r FROM requests r " +
+            "WHERE r.event.id = :eventId " +
+            "AND r.status = ru.practicum.request.model.ParticipationRequestStatus.PENDING")
+    List<ParticipationRequest> findPendingForUpdate(@Param("eventId") Long eventId);
+
+    // Меняет статус только у заявок события, которые всё ещё ожидают подтверждения
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE requests r SET r.status = :status " +
+            "WHERE r.event.id = :eventId " +
+            "AND r.id IN :ids " +
+            "AND r.status = ru.practicum.request.model.ParticipationRequestStatus.PENDING")
+    int updatePendingStatus(@Param("eventId") Long eventId,
+                            @Param("ids") Collection<Long> ids,
+                            @Param("status") ParticipationRequestStatus status);
 }
@@ -2,26 +2,30 @@ package ru.practicum.request.service;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
+import ru.practicum.CacheConfig;
 import ru.practicum.event.model.Event;
-import ru.practicum.event.model.EventState;
 import ru.practicum.event.repository.EventRepository;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.NotFoundException;
 import ru.practicum.request.model.EventRequestStatusUpdateRequest;
 import ru.practicum.request.model.EventRequestStatusUpdateResult;
+import ru.practicum.request.model.NewParticipationRequest;
 import ru.practicum.request.model.ParticipationRequest;
 import ru.practicum.request.model.ParticipationRequestDto;
 import ru.practicum.request.model.ParticipationRequestMapper;
 import ru.practicum.request.model.ParticipationRequestStatus;
 import ru.practicum.request.repository.ParticipationRequestRepository;
-import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
+import ru.practicum.version.ResourceVersions;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,6 +34,8 @@ public class ParticipationRequestService {
     private final ParticipationRequestRepository participationRequestRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
+    private final ResourceVersions resourceVersions;
+    private final ParticipationRequestValidator participationRequestValidator;
 
     public List<ParticipationRequestDto> getAllByUser(Long userId) {
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
@@ -51,38 +57,52 @@ public class ParticipationRequestService {
                 .toList();
     }
 
-    @Transactional
-    public ParticipationRequestDto create(Long userId, Long eventId) {
-        User requester = userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
+    public Map<ParticipationRequestStatus, Long> getStatusCounts(Long userId, Long eventId) {
+        userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
         Event event = eventRepository.findById(eventId).orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
-        if (event.getInitiator().getId().equals(userId)) {
-            throw new ConditionsNotMetException("Нельзя заявить участие в собственном событии");
-        }
-        if (event.getState() != EventState.PUBLISHED) {
-            throw new ConditionsNotMetException("Нельзя заявить участие в неопубликованном событии");
+        if (!event.getInitiator().getId().equals(userId)) {
+            throw new ConditionsNotMetException("Заявки на участие в событии может просмотреть только создатель события");
         }
-        if (!participationRequestRepository.findAllByEventIdAndRequesterId(eventId, userId).isEmpty()) {
+
+        Map<ParticipationRequestStatus, Long> counts = new EnumMap<>(ParticipationRequestStatus.class);
+        counts.put(ParticipationRequestStatus.PENDING, event.getPendingRequests());
+        counts.put(ParticipationRequestStatus.CONFIRMED, event.getConfirmedRequests());
+        counts.put(ParticipationRequestStatus.REJECTED, event.getRejectedRequests());
+        counts.put(ParticipationRequestStatus.CANCELED, event.getCanceledRequests());
+        return counts;
+    }
+
+    // Число подтверждённых заявок входит в результаты поиска событий и фильтр onlyAvailable
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EVENTS, allEntries = true,
+            condition = "#result.status == T(ru.practicum.request.model.ParticipationRequestStatus).CONFIRMED")
+    public ParticipationRequestDto create(Long userId, Long eventId) {
+        Event event = participationRequestValidator.checkCanRequest(userId, eventId);
+        if (participationRequestRepository.existsByEventIdAndRequesterId(eventId, userId)) {
             throw new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии");
         }
-        if (event.getParticipantLimit() != 0 && Objects.equals(event.getConfirmedRequests(), event.getParticipantLimit())) {
+        if (event.getParticipantLimit() != 0 && event.getConfirmedRequests() >= event.getParticipantLimit()) {
             throw new ConditionsNotMetException("Достигнут лимит заявок на участие в событии");
         }
 
-        ParticipationRequest participationRequest = ParticipationRequest.builder()
-                .requester(requester)
-                .event(event)
-                .status(event.getParticipantLimit() > 0 && event.getRequestModeration() ? ParticipationRequestStatus.PENDING : ParticipationRequestStatus.CONFIRMED)
-                .created(LocalDateTime.now())
-                .build();
-        if (!event.getRequestModeration()) {
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventRepository.save(event);
+        ParticipationRequestStatus status = participationRequestValidator.initialStatus(event);
+        NewParticipationRequest request = new NewParticipationRequest(eventId, userId, status, LocalDateTime.now());
+        // Заявка вставляется до резерва места, чтобы параллельный дубль отсекался уникальным ключом
+        Long requestId = participationRequestRepository.insertAbsent(eventId, List.of(request)).get(userId);
+        if (requestId == null) {
+            throw new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии");
+        }
+        if (status == ParticipationRequestStatus.CONFIRMED) {
+            reserve(event, 1, "Достигнут лимит заявок на участие в событии");
+        } else {
+            shiftCounters(event, 1, 0, 0);
         }
 
-        return ParticipationRequestMapper.toParticipationRequestDto(participationRequestRepository.save(participationRequest));
+        return ParticipationRequestMapper.toParticipationRequestDto(requestId, request);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EVENTS, allEntries = true)
     public ParticipationRequestDto cancel(Long userId, Long requestId) {
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
         ParticipationRequest participationRequest = participationRequestRepository.findById(requestId)
@@ -91,11 +111,18 @@ public class ParticipationRequestService {
             throw new ConditionsNotMetException("Заявку на участие в событии можно отменить только пользователем, который её отправил");
         }
 
-        Event event = eventRepository.findById(participationRequest.getEvent().getId())
-                .orElseThrow(() -> new NotFoundException("Событие с id=" + participationRequest.getEvent().getId() + " не найдено"));
-
-        event.setConfirmedRequests(event.getConfirmedRequests() - 1);
-        eventRepository.save(event);
+        Event event = participationRequest.getEvent();
+        switch (participationRequest.getStatus()) {
+            case CONFIRMED -> {
+                release(event, 1);
+                shiftCounters(event, 0, 0, 1);
+            }
+            case PENDING -> shiftCounters(event, -1, 0, 1);
+            case REJECTED -> shiftCounters(event, 0, -1, 1);
+            case CANCELED -> {
+                // Повторная отмена счётчики не меняет
+            }
+        }
 
         participationRequest.setStatus(ParticipationRequestStatus.CANCELED);
 
@@ -104,6 +131,7 @@ public class ParticipationRequestService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EVENTS, allEntries = true, condition = "!#result.confirmedRequests.isEmpty()")
     public EventRequestStatusUpdateResult updateStatus(Long userId, Long eventId, EventRequestStatusUpdateRequest requestDto) {
         userRepository.findById(userId).orElseThrow(() -> new NotFoundException("Пользователь с id=" + userId + " не найден"));
         Event event = eventRepository.findById(eventId).orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
@@ -114,71 +142,104 @@ public class ParticipationRequestService {
             throw new ConditionsNotMetException("Нельзя обновить статус заявок на участие в событии с отключенной модерацией заявок");
         }
 
-        List<ParticipationRequest> participationRequests = participationRequestRepository.findAllByEventId(eventId);
-        List<Long> requestIds = participationRequests.stream().map(ParticipationRequest::getId).toList();
-        List<Long> absentRequestIds = new ArrayList<>();
-        requestDto.getRequestIds().forEach(id -> {
-            if (!requestIds.contains(id)) {
-                absentRequestIds.add(id);
-            }
-        });
-
-        if (!absentRequestIds.isEmpty()) {
+        Set<Long> requestIds = requestDto.getRequestIds();
+        List<ParticipationRequest> participationRequestsToUpdate =
+                participationRequestRepository.findAllByEventIdAndIdIn(eventId, requestIds);
+        if (participationRequestsToUpdate.size() != requestIds.size()) {
+            Set<Long> foundIds = participationRequestsToUpdate.stream()
+                    .map(ParticipationRequest::getId)
+                    .collect(Collectors.toSet());
+            List<Long> absentRequestIds = requestIds.stream()
+                    .filter(id -> !foundIds.contains(id))
+                    .toList();
             throw new NotFoundException("Заявки на участие с id=" + absentRequestIds + " не найдены");
         }
 
-        List<ParticipationRequest> participationRequestsToUpdate = participationRequests.stream()
-                .filter(participationRequest -> requestDto.getRequestIds().contains(participationRequest.getId()))
-                .toList();
-
-        List<Long> notPendingRequests = participationRequestsToUpdate.stream()
-                .filter(participationRequest -> participationRequest.getStatus() != ParticipationRequestStatus.PENDING)
-                .map(ParticipationRequest::getId)
-                .toList();
-
-        if (!notPendingRequests.isEmpty()) {
+        boolean allPending = participationRequestsToUpdate.stream()
+                .allMatch(participationRequest -> participationRequest.getStatus() == ParticipationRequestStatus.PENDING);
+        if (!allPending) {
             throw new ConditionsNotMetException("Заявки на участие в событии с id=" + eventId + " не находятся в состоянии ожидания подтверждения");
         }
 
+        Set<ParticipationRequestDto> confirmed = new HashSet<>();
+        Set<ParticipationRequestDto> rejected = new HashSet<>();
         if (requestDto.getStatus() == ParticipationRequestStatus.CONFIRMED) {
-            if (event.getConfirmedRequests() + requestDto.getRequestIds().size() > event.getParticipantLimit()) {
-                throw new ConditionsNotMetException("Нельзя подтвердить заявки на участие в событии, так как превышен лимит заявок");
+            reserve(event, participationRequestsToUpdate.size(),
+                    "Нельзя подтвердить заявки на участие в событии, так как превышен лимит заявок");
+            updatePending(eventId, requestIds, ParticipationRequestStatus.CONFIRMED);
+            confirmed.addAll(toDtos(participationRequestsToUpdate, ParticipationRequestStatus.CONFIRMED));
+
+            int denied = 0;
+            if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
+                // Отклоняются по id ровно те заявки, что заблокированы здесь, чтобы ответ совпал с UPDATE
+                List<ParticipationRequest> participationRequestsForDeny =
+                        participationRequestRepository.findPendingForUpdate(eventId);
+                if (!participationRequestsForDeny.isEmpty()) {
+                    Set<Long> denyIds = participationRequestsForDeny.stream()
+                            .map(ParticipationRequest::getId)
+                            .collect(Collectors.toSet());
+                    updatePending(eventId, denyIds, ParticipationRequestStatus.REJECTED);
+                    denied = denyIds.size();
+                    rejected.addAll(toDtos(participationRequestsForDeny, ParticipationRequestStatus.REJECTED));
+                }
             }
+            shiftCounters(event, -(requestIds.size() + denied), denied, 0);
+        } else if (requestDto.getStatus() == ParticipationRequestStatus.REJECTED) {
+            updatePending(eventId, requestIds, ParticipationRequestStatus.REJECTED);
+            rejected.addAll(toDtos(participationRequestsToUpdate, ParticipationRequestStatus.REJECTED));
+            shiftCounters(event, -requestIds.size(), requestIds.size(), 0);
+        }
 
-            participationRequestsToUpdate.forEach(participationRequest -> participationRequest.setStatus(ParticipationRequestStatus.CONFIRMED));
-            participationRequestRepository.saveAll(participationRequests);
-            event.setConfirmedRequests(event.getConfirmedRequests() + requestDto.getRequestIds().size());
-            eventRepository.save(event);
+        return EventRequestStatusUpdateResult.builder()
+                .confirmedRequests(confirmed)
+                .rejectedRequests(rejected)
+                .build();
+    }
 
-            if (Objects.equals(event.getConfirmedRequests(), event.getParticipantLimit())) {
-                List<ParticipationRequest> participationRequestsForDeny = participationRequests.stream()
-                        .filter(participationRequest -> !requestDto.getRequestIds().contains(participationRequest.getId()))
-                        .toList();
+    private void updatePending(Long eventId, Set<Long> requestIds, ParticipationRequestStatus status) {
+        // Заявку успели отменить или обработать параллельно: откатываем всю операцию вместе с резервом мест
+        if (participationRequestRepository.updatePendingStatus(eventId, requestIds, status) != requestIds.size()) {
+            throw new ConditionsNotMetException("Заявки на участие в событии с id=" + eventId + " не находятся в состоянии ожидания подтверждения");
+        }
+    }
 
-                participationRequestsForDeny
-                        .forEach(participationRequest -> participationRequest.setStatus(ParticipationRequestStatus.REJECTED));
+    // Статус уже записан массовым UPDATE, загруженные до него сущности устарели
+    private static List<ParticipationRequestDto> toDtos(List<ParticipationRequest> participationRequests,
+                                                        ParticipationRequestStatus status) {
+        return participationRequests.stream()
+                .map(participationRequest -> {
+                    ParticipationRequestDto dto = ParticipationRequestMapper.toParticipationRequestDto(participationRequest);
+                    dto.setStatus(status);
+                    return dto;
+                })
+                .toList();
+    }
 
-                participationRequestRepository.saveAll(participationRequestsForDeny);
-            }
-        } else if (requestDto.getStatus() == ParticipationRequestStatus.REJECTED) {
-            participationRequestsToUpdate.forEach(participationRequest -> participationRequest.setStatus(ParticipationRequestStatus.REJECTED));
-            participationRequestRepository.saveAll(participationRequests);
-            event.setConfirmedRequests(event.getConfirmedRequests() - requestDto.getRequestIds().size());
-            eventRepository.save(event);
+    private void reserve(Event event, int count, String limitMessage) {
+        if (eventRepository.incrementConfirmedRequests(event.getId(), count) == 0) {
+            throw new ConditionsNotMetException(limitMessage);
         }
+        // Сущность в контексте устарела после UPDATE: подтягиваем актуальный счётчик
+        event.setConfirmedRequests(eventRepository.findConfirmedRequestsById(event.getId()));
+        touch(event);
+    }
 
-        participationRequests = participationRequestRepository.findAllByEventId(eventId);
-        return EventRequestStatusUpdateResult.builder()
-                .confirmedRequests(participationRequests
-                        .stream()
-                        .filter(participationRequest -> participationRequest.getStatus() == ParticipationRequestStatus.CONFIRMED)
-                        .map(ParticipationRequestMapper::toParticipationRequestDto)
-                        .collect(Collectors.toSet()))
-                .rejectedRequests(participationRequests
-                        .stream()
-                        .filter(participationRequest -> participationRequest.getStatus() == ParticipationRequestStatus.REJECTED)
-                        .map(ParticipationRequestMapper::toParticipationRequestDto)
-                        .collect(Collectors.toSet()))
-                .build();
+    private void release(Event event, int count) {
+        eventRepository.decrementConfirmedRequests(event.getId(), count);
+        event.setConfirmedRequests(eventRepository.findConfirmedRequestsById(event.getId()));
+        touch(event);
+    }
+
+    private void shiftCounters(Event event, long pending, long rejected, long canceled) {
+        eventRepository.shiftRequestCounters(event.getId(), pending, rejected, canceled);
+        // Сущность в контексте не видит UPDATE: переносим в неё те же приращения
+        event.setPendingRequests(event.getPendingRequests() + pending);
+        event.setRejectedRequests(event.getRejectedRequests() + rejected);
+        event.setCanceledRequests(event.getCanceledRequests() + canceled);
+    }
+
+    private void touch(Event event) {
+        resourceVersions.touch(ResourceVersions.event(event.getId()));
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
     }
 }
@@ -0,0 +1,38 @@
+package ru.practicum.request.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.extention.NotFoundException;
+import ru.practicum.request.model.ParticipationRequestStatus;
+import ru.practicum.user.repository.UserRepository;
+
+@Component
+@RequiredArgsConstructor
+public class ParticipationRequestValidator {
+    private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+
+    public Event checkCanRequest(Long userId, Long eventId) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException("Пользователь с id=" + userId + " не найден");
+        }
+        Event event = eventRepository.findById(eventId).orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
+        if (event.getInitiator().getId().equals(userId)) {
+            throw new ConditionsNotMetException("Нельзя заявить участие в собственном событии");
+        }
+        if (event.getState() != EventState.PUBLISHED) {
+            throw new ConditionsNotMetException("Нельзя заявить участие в неопубликованном событии");
+        }
+        return event;
+    }
+
+    public ParticipationRequestStatus initialStatus(Event event) {
+        return event.getParticipantLimit() > 0 && event.getRequestModeration()
+                ? ParticipationRequestStatus.PENDING
+                : ParticipationRequestStatus.CONFIRMED;
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.request.model.ParticipationRequestDto;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class RequestIdempotencyStore {
+    private final Cache<String, Attempt> attempts;
+
+    public RequestIdempotencyStore(@Value("${EWMServiceApp.idempotency.maximum-size:100000}") long maximumSize,
+                                   @Value("${EWMServiceApp.idempotency.ttl:10m}") Duration ttl) {
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public ParticipationRequestDto execute(Long userId, String key, Long eventId,
+                                           Supplier<ParticipationRequestDto> action) {
+        String storeKey = userId + ":" + key;
+        Attempt attempt = new Attempt(eventId, new CompletableFuture<>());
+        Attempt previous = attempts.asMap().putIfAbsent(storeKey, attempt);
+        if (previous != null) {
+            if (!previous.eventId().equals(eventId)) {
+                throw new ConditionsNotMetException("Ключ идемпотентности " + key
+                        + " уже использован для заявки на событие с id=" + previous.eventId());
+            }
+            log.info("Повтор создания заявки пользователя {} с ключом идемпотентности {}", userId, key);
+            return await(previous.result());
+        }
+
+        try {
+            ParticipationRequestDto result = action.get();
+            attempt.result().complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            attempts.asMap().remove(storeKey, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static ParticipationRequestDto await(CompletableFuture<ParticipationRequestDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Attempt(Long eventId, CompletableFuture<ParticipationRequestDto> result) {
+    }
+}
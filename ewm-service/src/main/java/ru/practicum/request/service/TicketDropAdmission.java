@@ -0,0 +1,329 @@
+package ru.practicum.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.extention.ServiceUnavailableException;
+import ru.practicum.request.model.NewParticipationRequest;
+import ru.practicum.request.model.ParticipationRequestDto;
+import ru.practicum.request.model.ParticipationRequestMapper;
+import ru.practicum.request.model.ParticipationRequestStatus;
+import ru.practicum.request.repository.ParticipationRequestRepository;
+import ru.practicum.version.ResourceVersions;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Счётчик мест в памяти только отсеивает лишние заявки, место выдаёт условный UPDATE при сохранении пачки
+@Slf4j
+@Component
+public class TicketDropAdmission {
+    private final ParticipationRequestRepository participationRequestRepository;
+    private final EventRepository eventRepository;
+    private final ParticipationRequestValidator participationRequestValidator;
+    private final ResourceVersions resourceVersions;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final BlockingQueue<Admission> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final boolean virtualThreads;
+    private final Cache<Long, AtomicLong> seats;
+    // Заявки, принятые, но ещё не сохранённые: повтор того же пользователя отсекается без обращения к базе
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread persister;
+
+    public TicketDropAdmission(ParticipationRequestRepository participationRequestRepository,
+                               EventRepository eventRepository,
+                               ParticipationRequestValidator participationRequestValidator,
+                               ResourceVersions resourceVersions,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${EWMServiceApp.ticket-drop.enabled:false}") boolean enabled,
+                               @Value("${EWMServiceApp.ticket-drop.capacity:10000}") int capacity,
+                               @Value("${EWMServiceApp.ticket-drop.batch-size:200}") int batchSize,
+                               @Value("${EWMServiceApp.ticket-drop.flush-interval:10}") long flushIntervalMillis,
+                               @Value("${EWMServiceApp.ticket-drop.seats-ttl:5s}") Duration seatsTtl,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.participationRequestRepository = participationRequestRepository;
+        this.eventRepository = eventRepository;
+        this.participationRequestValidator = participationRequestValidator;
+        this.resourceVersions = resourceVersions;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.virtualThreads = virtualThreads;
+        // Остаток мест периодически перечитывается из базы: так возвращаются места отменённых заявок
+        this.seats = Caffeine.newBuilder()
+                .expireAfterWrite(seatsTtl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        persister = builder.name("ticket-drop-persister").start(this::persistLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (persister != null) {
+            persister.interrupt();
+            try {
+                persister.join(flushIntervalMillis * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<Admission> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        while (!rest.isEmpty()) {
+            List<Admission> batch = rest.subList(0, Math.min(batchSize, rest.size()));
+            persist(new ArrayList<>(batch));
+            batch.clear();
+        }
+    }
+
+    public ParticipationRequestDto create(Long userId, Long eventId) {
+        if (!running) {
+            throw new ServiceUnavailableException("Приём заявок в режиме продажи билетов остановлен");
+        }
+        Event event = participationRequestValidator.checkCanRequest(userId, eventId);
+
+        String key = eventId + ":" + userId;
+        if (!inFlight.add(key)) {
+            throw new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии");
+        }
+        boolean queued = false;
+        try {
+            if (participationRequestRepository.existsByEventIdAndRequesterId(eventId, userId)) {
+                throw new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии");
+            }
+            ParticipationRequestStatus status = participationRequestValidator.initialStatus(event);
+            if (event.getParticipantLimit() != 0 && !takeSeat(event, status)) {
+                throw new ConditionsNotMetException("Достигнут лимит заявок на участие в событии");
+            }
+
+            Admission admission = new Admission(
+                    new NewParticipationRequest(eventId, userId, status, LocalDateTime.now()),
+                    event.getParticipantLimit(),
+                    new CompletableFuture<>());
+            queue.put(admission);
+            queued = true;
+            // stop() мог разобрать очередь до put: такую заявку уже никто не сохранит
+            if (!running && queue.remove(admission)) {
+                inFlight.remove(key);
+                throw new ServiceUnavailableException("Приём заявок в режиме продажи билетов остановлен");
+            }
+            return await(admission.getResult());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Ожидание сохранения заявки прервано");
+        } finally {
+            if (!queued) {
+                inFlight.remove(key);
+            }
+        }
+    }
+
+    // Для заявок на модерации место не резервируется, проверяется только исчерпание лимита
+    private boolean takeSeat(Event event, ParticipationRequestStatus status) {
+        AtomicLong left = seats.get(event.getId(),
+                id -> new AtomicLong(event.getParticipantLimit() - event.getConfirmedRequests()));
+        if (status == ParticipationRequestStatus.PENDING) {
+            return left.get() > 0;
+        }
+        return left.getAndDecrement() > 0;
+    }
+
+    private void persistLoop() {
+        List<Admission> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                log.debug("Поток сохранения заявок прерван");
+            }
+            if (!batch.isEmpty()) {
+                persist(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            persist(batch);
+        }
+    }
+
+    private void collectBatch(List<Admission> batch) throws InterruptedException {
+        Admission first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            Admission next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    // Ответы отдаются только после коммита пачки
+    void persist(List<Admission> batch) {
+        Map<Long, List<Admission>> byEvent = new LinkedHashMap<>();
+        batch.forEach(admission -> byEvent.computeIfAbsent(admission.getRequest().getEventId(), id -> new ArrayList<>())
+                .add(admission));
+        Map<Admission, Object> outcomes = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(tx ->
+                    byEvent.forEach((eventId, admissions) -> persistEvent(eventId, admissions, outcomes)));
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить пачку из {} заявок: {}", batch.size(), e.getMessage());
+            byEvent.keySet().forEach(seats::invalidate);
+            outcomes.clear();
+            batch.forEach(admission -> outcomes.put(admission, e));
+        } finally {
+            batch.forEach(admission -> inFlight.remove(admission.getRequest().getEventId() + ":"
+                    + admission.getRequest().getRequesterId()));
+        }
+        outcomes.forEach((admission, outcome) -> {
+            if (outcome instanceof RuntimeException e) {
+                admission.getResult().completeExceptionally(e);
+            } else {
+                admission.getResult().complete((ParticipationRequestDto) outcome);
+            }
+        });
+    }
+
+    private void persistEvent(Long eventId, List<Admission> admissions, Map<Admission, Object> outcomes) {
+        List<Admission> confirmed = admissions.stream()
+                .filter(admission -> admission.getRequest().getStatus() == ParticipationRequestStatus.CONFIRMED)
+                .toList();
+        List<Admission> accepted = new ArrayList<>(admissions.size());
+        admissions.stream()
+                .filter(admission -> admission.getRequest().getStatus() == ParticipationRequestStatus.PENDING)
+                .forEach(accepted::add);
+
+        int granted = confirmed.isEmpty() ? 0 : reserve(eventId, confirmed.size(), confirmed.getFirst().getParticipantLimit());
+        if (granted < confirmed.size()) {
+            seats.put(eventId, new AtomicLong(0));
+        }
+        for (int i = 0; i < confirmed.size(); i++) {
+            if (i < granted) {
+                accepted.add(confirmed.get(i));
+            } else {
+                outcomes.put(confirmed.get(i), new ConditionsNotMetException("Достигнут лимит заявок на участие в событии"));
+            }
+        }
+
+        Map<Long, Long> ids = participationRequestRepository.insertAbsent(eventId,
+                accepted.stream().map(Admission::getRequest).toList());
+        long pending = 0;
+        long duplicates = 0;
+        for (Admission admission : accepted) {
+            NewParticipationRequest request = admission.getRequest();
+            Long id = ids.get(request.getRequesterId());
+            if (id == null) {
+                // Заявку успел сохранить другой экземпляр сервиса или обычный путь создания заявок
+                outcomes.put(admission, new ConditionsNotMetException("Нельзя отправить дублирующую заявку на участие в событии"));
+                if (request.getStatus() == ParticipationRequestStatus.CONFIRMED) {
+                    duplicates++;
+                }
+                continue;
+            }
+            if (request.getStatus() == ParticipationRequestStatus.PENDING) {
+                pending++;
+            }
+            outcomes.put(admission, ParticipationRequestMapper.toParticipationRequestDto(id, request));
+        }
+        if (duplicates > 0) {
+            eventRepository.decrementConfirmedRequests(eventId, duplicates);
+            AtomicLong left = seats.getIfPresent(eventId);
+            if (left != null) {
+                left.addAndGet(duplicates);
+            }
+        }
+        if (pending > 0) {
+            eventRepository.shiftRequestCounters(eventId, pending, 0, 0);
+        }
+        if (granted > duplicates) {
+            resourceVersions.touch(ResourceVersions.event(eventId));
+            resourceVersions.touch(ResourceVersions.COMPILATIONS);
+        }
+    }
+
+    // Каждый повтор просит меньше мест, чем предыдущий, поэтому цикл конечен
+    private int reserve(Long eventId, int wanted, long participantLimit) {
+        int count = wanted;
+        while (count > 0) {
+            if (eventRepository.incrementConfirmedRequests(eventId, count) > 0) {
+                return count;
+            }
+            long left = participantLimit - eventRepository.findConfirmedRequestsById(eventId);
+            count = (int) Math.max(0, Math.min(count - 1, left));
+        }
+        return 0;
+    }
+
+    private static ParticipationRequestDto await(CompletableFuture<ParticipationRequestDto> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    static class Admission {
+        private final NewParticipationRequest request;
+        private final Long participantLimit;
+        private final CompletableFuture<ParticipationRequestDto> result;
+    }
+}
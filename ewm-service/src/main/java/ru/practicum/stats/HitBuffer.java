@@ -0,0 +1,232 @@
+package ru.practicum.stats;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+@Slf4j
+public class HitBuffer {
+    private final StatsClient statsClient;
+    private final CircuitBreaker circuitBreaker;
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final HitOverflowPolicy overflowPolicy;
+    private final long blockTimeoutMillis;
+    private final boolean virtualThreads;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public HitBuffer(StatsClient statsClient,
+                     CircuitBreaker statsCircuitBreaker,
+                     @Value("${EWMServiceApp.stats-service.hits.capacity:10000}") int capacity,
+                     @Value("${EWMServiceApp.stats-service.hits.batch-size:500}") int batchSize,
+                     @Value("${EWMServiceApp.stats-service.hits.flush-interval:1000}") long flushIntervalMillis,
+                     @Value("${EWMServiceApp.stats-service.hits.overflow-policy:DROP_OLDEST}") HitOverflowPolicy overflowPolicy,
+                     @Value("${EWMServiceApp.stats-service.hits.block-timeout:50}") long blockTimeoutMillis,
+                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.statsClient = statsClient;
+        this.circuitBreaker = statsCircuitBreaker;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon();
+        flusher = builder.name("stats-hit-flusher").start(this::flushLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (!queue.isEmpty()) {
+            log.warn("При остановке не отправлено {} просмотров: сервис статистики недоступен", queue.size());
+        }
+    }
+
+    public boolean add(EndpointHitDto hit) {
+        boolean added = switch (overflowPolicy) {
+            case DROP -> queue.offer(hit);
+            case DROP_OLDEST -> offerDroppingOldest(hit);
+            case BLOCK -> offerBlocking(hit);
+        };
+        if (added) {
+            accepted.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+        return added;
+    }
+
+    public void flush() {
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            boolean delivered = send(batch);
+            batch.clear();
+            if (!delivered) {
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    private boolean offerDroppingOldest(EndpointHitDto hit) {
+        while (!queue.offer(hit)) {
+            if (queue.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(EndpointHitDto hit) {
+        try {
+            return queue.offer(hit, blockTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flushLoop() {
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                log.debug("Поток отправки статистики прерван");
+            }
+            if (!batch.isEmpty()) {
+                boolean delivered = send(batch);
+                batch.clear();
+                if (!delivered) {
+                    pause();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private void collectBatch(List<EndpointHitDto> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            EndpointHitDto hit = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (hit == null) {
+                return;
+            }
+            batch.add(hit);
+            queue.drainTo(batch, batchSize - batch.size());
+        }
+    }
+
+    // failed - только окончательно потерянные просмотры, возвращённые в буфер считаются в retried
+    private boolean send(List<EndpointHitDto> batch) {
+        List<EndpointHitDto> hits = List.copyOf(batch);
+        try {
+            ResponseEntity<Object> response = circuitBreaker.executeSupplier(() -> statsClient.saveAll(hits));
+            if (response.getStatusCode().is2xxSuccessful()) {
+                sent.addAndGet(hits.size());
+                return true;
+            }
+            log.error("Ошибка при сохранении статистики: {}", response.getBody());
+            if (response.getStatusCode().is5xxServerError()) {
+                requeue(hits);
+                return false;
+            }
+            failed.addAndGet(hits.size());
+            return true;
+        } catch (CallNotPermittedException e) {
+            requeue(hits);
+            log.debug("Сервис статистики недоступен, просмотры оставлены в буфере: {}", hits.size());
+            return false;
+        } catch (RuntimeException e) {
+            requeue(hits);
+            log.error("Исключительная ситуация при сохранении статистики: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private void requeue(List<EndpointHitDto> hits) {
+        for (EndpointHitDto hit : hits) {
+            if (queue.offer(hit)) {
+                retried.incrementAndGet();
+            } else {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(flushIntervalMillis);
+        } catch (InterruptedException e) {
+            log.debug("Поток отправки статистики прерван");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.practicum.stats;
+
+public enum HitOverflowPolicy {
+    DROP,
+    DROP_OLDEST,
+    BLOCK
+}
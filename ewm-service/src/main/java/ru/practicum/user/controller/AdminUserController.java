@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.pagination.PageCursor;
 import ru.practicum.user.model.UserDto;
 import ru.practicum.user.service.UserService;
 
@@ -33,9 +34,13 @@ public class AdminUserController {
     @GetMapping()
     public ResponseEntity<List<UserDto>> getAll(@RequestParam(required = false) List<Long> ids,
                                                 @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                                @RequestParam(defaultValue = "10") @Positive Integer size) {
+                                                @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                @RequestParam(required = false) String after) {
         log.info("Получен запрос GET /admin/users");
-        return new ResponseEntity<>(service.getAll(ids, from, size), HttpStatus.OK);
+        List<UserDto> users = after != null
+                ? service.getAllAfter(ids, PageCursor.decode(after), size)
+                : service.getAll(ids, from, size);
+        return PageCursor.toResponse(users, size, user -> PageCursor.of(user.getId()));
     }
 
     @PostMapping()
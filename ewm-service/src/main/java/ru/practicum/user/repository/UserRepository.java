@@ -1,5 +1,6 @@
 package ru.practicum.user.repository;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -25,5 +26,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
         return findUsers(ids, pageable);
     }
 
+    @Query("SELECT u FROM users u " +
+            "WHERE (:ids IS NULL OR u.id IN :ids) " +
+            "AND u.id > :afterId " +
+            "ORDER BY u.id ASC")
+    List<User> findUsersAfter(@Param("ids") List<Long> ids, @Param("afterId") Long afterId, Limit limit);
+
     Optional<User> findByEmail(String email);
 }
@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.NotFoundException;
+import ru.practicum.pagination.PageCursor;
 import ru.practicum.user.model.User;
 import ru.practicum.user.model.UserDto;
 import ru.practicum.user.model.UserMapper;
@@ -23,6 +24,12 @@ public class UserService {
                 .toList();
     }
 
+    public List<UserDto> getAllAfter(List<Long> ids, PageCursor after, Integer size) {
+        return userRepository.findUsersAfter(ids, after.getId(), PageCursor.limit(size)).stream()
+                .map(UserMapper::toUserDto)
+                .toList();
+    }
+
     public UserDto create(UserDto user) {
         Optional<User> userByEmail = userRepository.findByEmail(user.getEmail());
         if (userByEmail.isPresent()) {
@@ -0,0 +1,62 @@
+package ru.practicum.version;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Версии хранятся в памяти процесса: ETag верны только при одном экземпляре ewm-service
+@Component
+public class ResourceVersions {
+    public static final String COMPILATIONS = "compilations";
+
+    private final String generation = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+
+    public static String event(Long eventId) {
+        return "event:" + eventId;
+    }
+
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void touch(String key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bump(key);
+                }
+            });
+        } else {
+            bump(key);
+        }
+    }
+
+    public String etag(String key, Object... parts) {
+        StringBuilder etag = new StringBuilder("\"").append(generation).append('-').append(versions.getOrDefault(key, 0L));
+        for (Object part : parts) {
+            etag.append('-').append(part);
+        }
+        return etag.append('"').toString();
+    }
+
+    private void bump(String key) {
+        versions.merge(key, 1L, Long::sum);
+    }
+}
@@ -0,0 +1,47 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- В базе, созданной до появления счётчиков заявок, колонки добавляются и заполняются по requests
+DO '
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_schema = current_schema() AND table_name = ''events''
+                     AND column_name = ''pending_requests'') THEN
+        ALTER TABLE events
+            ADD COLUMN pending_requests  BIGINT DEFAULT 0 NOT NULL,
+            ADD COLUMN rejected_requests BIGINT DEFAULT 0 NOT NULL,
+            ADD COLUMN canceled_requests BIGINT DEFAULT 0 NOT NULL;
+        UPDATE events e
+        SET pending_requests  = c.pending,
+            rejected_requests = c.rejected,
+            canceled_requests = c.canceled
+        FROM (SELECT event_id,
+                     COUNT(*) FILTER (WHERE status = ''PENDING'')  AS pending,
+                     COUNT(*) FILTER (WHERE status = ''REJECTED'') AS rejected,
+                     COUNT(*) FILTER (WHERE status = ''CANCELED'') AS canceled
+              FROM requests
+              GROUP BY event_id) c
+        WHERE e.id = c.event_id;
+    END IF;
+END';
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (
+    (setweight(to_tsvector('russian', coalesce(title, '')), 'A') ||
+     setweight(to_tsvector('russian', coalesce(annotation, '')), 'B') ||
+     setweight(to_tsvector('russian', coalesce(description, '')), 'C'))
+    );
+
+CREATE INDEX IF NOT EXISTS idx_events_title_trgm ON events USING GIN (title gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_annotation_trgm ON events USING GIN (annotation gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_description_trgm ON events USING GIN (description gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_events_initiator_event_date ON events (initiator_id, event_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_comments_event_id ON comments (event_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_user_id ON comments (user_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requester_id ON requests (requester_id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_event_status ON requests (event_id, status);
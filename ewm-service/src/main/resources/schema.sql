@@ -21,6 +21,9 @@ CREATE TABLE IF NOT EXISTS events
     annotation         VARCHAR(2000)                           NOT NULL,
     category_id        BIGINT                                  NOT NULL,
     confirmed_requests BIGINT DEFAULT 0,
+    pending_requests   BIGINT DEFAULT 0                        NOT NULL,
+    rejected_requests  BIGINT DEFAULT 0                        NOT NULL,
+    canceled_requests  BIGINT DEFAULT 0                        NOT NULL,
     created_on         TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
     description        TEXT                           NOT NULL,
     event_date         TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
@@ -0,0 +1,197 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.dto.EndpointHitDto;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsClientConfigTest {
+    private final StatsClientConfig config = new StatsClientConfig();
+    private final Set<Object> remotePorts = ConcurrentHashMap.newKeySet();
+
+    private HttpServer server;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private PoolingAsyncClientConnectionManager asyncConnectionManager;
+    private CloseableHttpAsyncClient asyncHttpClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            remotePorts.add(exchange.getRemoteAddress().getPort());
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        ReflectionTestUtils.setField(config, "statsServiceUrl", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(config, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(config, "readTimeout", Duration.ofSeconds(1));
+        connectionManager = config.statsConnectionManager(10, 4, Duration.ofMinutes(1), Duration.ofSeconds(2));
+        httpClient = config.statsHttpClient(connectionManager, Duration.ofMillis(500),
+                Duration.ofSeconds(30), Duration.ofSeconds(30));
+        asyncConnectionManager = config.statsAsyncConnectionManager(false, 10, 4,
+                Duration.ofMinutes(1), Duration.ofSeconds(2));
+        asyncHttpClient = config.statsAsyncHttpClient(asyncConnectionManager, Duration.ofSeconds(5),
+                Duration.ofSeconds(30), Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        asyncHttpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void statsClientShouldReuseKeptAliveConnections() {
+        StatsClient statsClient = config.statsClient(new RestTemplateBuilder(),
+                config.pooledStatsRequestFactory(httpClient));
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(statsClient.saveAll(List.of(hit())).getStatusCode().is2xxSuccessful());
+        }
+
+        assertEquals(1, remotePorts.size());
+        assertEquals(0, connectionManager.getTotalStats().getLeased());
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+    @Test
+    void statsConnectionPoolMetricsShouldExportPoolState() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        config.statsConnectionPoolMetrics(connectionManager).bindTo(registry);
+        StatsClient statsClient = config.statsClient(new RestTemplateBuilder(),
+                config.pooledStatsRequestFactory(httpClient));
+
+        statsClient.saveAll(List.of(hit()));
+
+        assertEquals(10, poolGauge(registry, "max"));
+        assertEquals(0, poolGauge(registry, "leased"));
+        assertEquals(1, poolGauge(registry, "available"));
+        assertEquals(0, poolGauge(registry, "pending"));
+    }
+
+    @Test
+    void asyncStatsClientShouldNotOpenMoreConnectionsThanPoolAllowsPerRoute() throws InterruptedException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        config.statsAsyncConnectionPoolMetrics(asyncConnectionManager).bindTo(registry);
+        AsyncStatsClient statsClient = config.asyncStatsClient(new ObjectMapper(), asyncHttpClient);
+
+        CompletableFuture.allOf(IntStream.range(0, 12)
+                .mapToObj(i -> statsClient.getStats("2024-01-01 00:00:00", "2024-01-02 00:00:00",
+                        List.of("/events/" + i), false))
+                .toArray(CompletableFuture[]::new)).join();
+
+        assertTrue(remotePorts.size() <= 4);
+        assertEquals(10, asyncPoolGauge(registry, "max"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (asyncPoolGauge(registry, "leased") > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, asyncPoolGauge(registry, "leased"));
+    }
+
+    @Test
+    void http2StatsRequestFactoryShouldUseJdkClient() {
+        assertInstanceOf(JdkClientHttpRequestFactory.class, config.http2StatsRequestFactory());
+    }
+
+    @Test
+    void http2ClientsShouldFallBackToHttp11ForPlainHttpStatsServer() throws IOException {
+        StatsClient statsClient = config.statsClient(new RestTemplateBuilder(), config.http2StatsRequestFactory());
+        PoolingAsyncClientConnectionManager http2ConnectionManager = config.statsAsyncConnectionManager(true, 10, 4,
+                Duration.ofMinutes(1), Duration.ofSeconds(2));
+        try (CloseableHttpAsyncClient http2Client = config.statsAsyncHttpClient(http2ConnectionManager,
+                Duration.ofSeconds(5), Duration.ofSeconds(30), Duration.ofSeconds(30))) {
+            AsyncStatsClient asyncStatsClient = config.asyncStatsClient(new ObjectMapper(), http2Client);
+
+            assertTrue(statsClient.saveAll(List.of(hit())).getStatusCode().is2xxSuccessful());
+            assertEquals(List.of(), asyncStatsClient.getStats("2024-01-01 00:00:00", "2024-01-02 00:00:00",
+                    List.of("/events/1"), false).join());
+        }
+    }
+
+    @Test
+    void statsCircuitBreakerMetricsShouldCountStateTransitions() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        CircuitBreaker circuitBreaker = config.statsCircuitBreaker(50, 50, Duration.ofSeconds(2), 4, 4,
+                Duration.ofSeconds(10), 1);
+        config.statsCircuitBreakerMetrics(circuitBreaker).bindTo(registry);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> circuitBreaker.executeSupplier(() -> {
+                throw new IllegalStateException("Сервис статистики недоступен");
+            }));
+        }
+        assertThrows(CallNotPermittedException.class, () -> circuitBreaker.executeSupplier(() -> "ok"));
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, registry.get("stats.client.circuit.state").gauge().value());
+        assertEquals(1, registry.get("stats.client.circuit.transitions")
+                .tag("from", "CLOSED").tag("to", "OPEN").counter().count());
+        assertEquals(1, registry.get("stats.client.circuit.rejected").counter().count());
+    }
+
+    @Test
+    void statsCircuitBreakerShouldTakeSlowCallRateThresholdSeparately() {
+        CircuitBreaker circuitBreaker = config.statsCircuitBreaker(50, 80, Duration.ofSeconds(2), 4, 4,
+                Duration.ofSeconds(10), 1);
+
+        assertEquals(50, circuitBreaker.getCircuitBreakerConfig().getFailureRateThreshold());
+        assertEquals(80, circuitBreaker.getCircuitBreakerConfig().getSlowCallRateThreshold());
+    }
+
+    private double poolGauge(MeterRegistry registry, String state) {
+        return registry.get("stats.client.pool.connections").tag("state", state).gauge().value();
+    }
+
+    private double asyncPoolGauge(MeterRegistry registry, String state) {
+        return registry.get("stats.client.pool.connections").tag("client", "async").tag("state", state).gauge().value();
+    }
+
+    private EndpointHitDto hit() {
+        return EndpointHitDto.builder()
+                .app("ewm-service")
+                .uri("/events/1")
+                .ip("127.0.0.1")
+                .timestamp("2024-01-01 00:00:00")
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package ru.practicum.category.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.CacheConfig;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.model.CategoryDto;
+import ru.practicum.category.repository.CategoryRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+@ActiveProfiles("test")
+class CategoryServiceCacheTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void getAllShouldBeServedFromCacheUntilCategoryIsCreated() {
+        Category category = Category.builder().id(1L).name("Концерты").build();
+        when(categoryRepository.findCategories(0, 10)).thenReturn(List.of(category));
+        when(categoryRepository.findByNameIgnoreCase("Выставки")).thenReturn(List.of());
+        when(categoryRepository.saveAndFlush(any())).thenReturn(Category.builder().id(2L).name("Выставки").build());
+        double hitsBefore = cacheGets("hit");
+
+        categoryService.getAll(0, 10);
+        categoryService.getAll(0, 10);
+        verify(categoryRepository, times(1)).findCategories(0, 10);
+        assertEquals(hitsBefore + 1, cacheGets("hit"));
+
+        categoryService.create(CategoryDto.builder().name("Выставки").build());
+        categoryService.getAll(0, 10);
+        verify(categoryRepository, times(2)).findCategories(0, 10);
+    }
+
+    @Test
+    void updateShouldEvictCachedEventSearches() {
+        Category category = Category.builder().id(1L).name("Концерты").build();
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(category));
+        when(categoryRepository.findByNameIgnoreCase("Выставки")).thenReturn(List.of());
+        when(categoryRepository.saveAndFlush(any())).thenReturn(Category.builder().id(1L).name("Выставки").build());
+        cacheManager.getCache(CacheConfig.EVENTS).put("search", List.of());
+        assertNotNull(cacheManager.getCache(CacheConfig.EVENTS).get("search"));
+
+        categoryService.update(1L, CategoryDto.builder().name("Выставки").build());
+
+        assertNull(cacheManager.getCache(CacheConfig.EVENTS).get("search"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.CATEGORIES)
+                .tag("result", result)
+                .functionCounter()
+                .count();
+    }
+}
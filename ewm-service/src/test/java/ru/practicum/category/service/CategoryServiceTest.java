@@ -13,6 +13,7 @@ import ru.practicum.event.repository.EventRepository;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.NotFoundException;
 import ru.practicum.event.model.Event;
+import ru.practicum.version.ResourceVersions;
 
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +31,9 @@ class CategoryServiceTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private CategoryService categoryService;
 
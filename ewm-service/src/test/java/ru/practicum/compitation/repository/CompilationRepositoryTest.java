@@ -0,0 +1,140 @@
+package ru.practicum.compitation.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.compilation.model.Compilation;
+import ru.practicum.compilation.model.CompilationDto;
+import ru.practicum.compilation.repository.CompilationRepository;
+import ru.practicum.compilation.service.CompilationService;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+@ActiveProfiles("test")
+class CompilationRepositoryTest {
+    private static final int COMPILATIONS = 10;
+    private static final int EVENTS_PER_COMPILATION = 3;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < COMPILATIONS * EVENTS_PER_COMPILATION; i++) {
+            User initiator = userRepository.save(User.builder().name("User " + i).email("user" + i + "@compilations.ru").build());
+            Category category = categoryRepository.save(Category.builder().name("Категория " + i).build());
+            events.add(eventRepository.save(event("Событие " + i, category, initiator)));
+        }
+        for (int i = 0; i < COMPILATIONS; i++) {
+            compilationRepository.save(Compilation.builder()
+                    .title("Подборка " + i)
+                    .pinned(i % 2 == 0)
+                    .events(new HashSet<>(events.subList(i * EVENTS_PER_COMPILATION, (i + 1) * EVENTS_PER_COMPILATION)))
+                    .build());
+        }
+        entityManager.flush();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllShouldLoadPageWithConstantNumberOfQueries() {
+        long smallPageQueries = countQueries(2);
+        long fullPageQueries = countQueries(COMPILATIONS);
+
+        assertEquals(2, smallPageQueries);
+        assertEquals(smallPageQueries, fullPageQueries);
+    }
+
+    @Test
+    void findAllShouldReturnEventsWithCategoriesAndInitiators() {
+        entityManager.clear();
+
+        List<CompilationDto> compilations = compilationService.findAll(true, 0, COMPILATIONS);
+
+        assertEquals(COMPILATIONS / 2, compilations.size());
+        compilations.forEach(compilation -> {
+            assertEquals(EVENTS_PER_COMPILATION, compilation.getEvents().size());
+            compilation.getEvents().forEach(event -> {
+                assertEquals("Категория " + event.getTitle().substring("Событие ".length()), event.getCategory().getName());
+                assertEquals("User " + event.getTitle().substring("Событие ".length()), event.getInitiator().getName());
+            });
+        });
+    }
+
+    private long countQueries(int size) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<CompilationDto> compilations = compilationService.findAll(null, 0, size);
+        compilations.forEach(compilation -> compilation.getEvents().forEach(event -> {
+            event.getCategory().getName();
+            event.getInitiator().getName();
+        }));
+
+        assertEquals(size, compilations.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Event event(String title, Category category, User initiator) {
+        return Event.builder()
+                .title(title)
+                .annotation("Аннотация события")
+                .description("Описание события")
+                .category(category)
+                .initiator(initiator)
+                .createdOn(LocalDateTime.now())
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .lat(55.75)
+                .lon(37.62)
+                .paid(false)
+                .participantLimit(0L)
+                .confirmedRequests(0L)
+                .requestModeration(true)
+                .state(EventState.PUBLISHED)
+                .views(0L)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.compitation.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.compilation.model.Compilation;
+import ru.practicum.compilation.repository.CompilationRepository;
+import ru.practicum.compilation.service.CompilationService;
+import ru.practicum.version.ResourceVersions;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+@ActiveProfiles("test")
+class CompilationServiceCacheTest {
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @MockBean
+    private CompilationRepository compilationRepository;
+
+    @Test
+    void cachedCompilationsShouldBeReloadedAfterVersionChange() {
+        Compilation compilation = Compilation.builder().id(1L).title("Лето").pinned(false).events(new HashSet<>()).build();
+        when(compilationRepository.findCompilations(null, 0, 10)).thenReturn(List.of(compilation));
+        when(compilationRepository.findCompilationEvents(anyList())).thenReturn(List.of());
+        when(compilationRepository.findById(1L)).thenReturn(Optional.of(compilation));
+
+        compilationService.findAll(null, 0, 10);
+        compilationService.findAll(null, 0, 10);
+        compilationService.findById(1L);
+        compilationService.findById(1L);
+        verify(compilationRepository, times(1)).findCompilations(null, 0, 10);
+        verify(compilationRepository, times(1)).findById(1L);
+
+        // Так версию меняют изменения событий, заявок и сохранение просмотров
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
+        compilationService.findAll(null, 0, 10);
+        compilationService.findById(1L);
+        verify(compilationRepository, times(2)).findCompilations(null, 0, 10);
+        verify(compilationRepository, times(2)).findById(1L);
+    }
+}
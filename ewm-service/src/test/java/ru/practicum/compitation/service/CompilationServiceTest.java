@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.category.model.Category;
 import ru.practicum.compilation.model.Compilation;
 import ru.practicum.compilation.model.CompilationDto;
+import ru.practicum.compilation.model.CompilationEvent;
 import ru.practicum.compilation.model.NewCompilationDto;
 import ru.practicum.compilation.model.UpdateCompilationRequest;
 import ru.practicum.compilation.repository.CompilationRepository;
@@ -18,6 +19,7 @@ import ru.practicum.event.repository.EventRepository;
 import ru.practicum.extention.ConditionsNotMetException;
 import ru.practicum.extention.NotFoundException;
 import ru.practicum.user.model.User;
+import ru.practicum.version.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
@@ -38,6 +40,9 @@ class CompilationServiceTest {
     @Mock
     private EventRepository eventRepository;
 
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private CompilationService compilationService;
 
@@ -85,6 +90,9 @@ class CompilationServiceTest {
 
         when(compilationRepository.findCompilations(any(), any(), any()))
                 .thenReturn(List.of(compilation));
+        when(compilationRepository.findCompilationEvents(List.of(1L)))
+                .thenReturn(List.of(new CompilationEvent(1L, event.getId(), event.getTitle(), event.getAnnotation(),
+                        1L, "Test Category", 1L, "Test User", event.getEventDate(), false, 0L, 0L)));
 
         List<CompilationDto> result = compilationService.findAll(true, 0, 10);
 
@@ -92,6 +100,8 @@ class CompilationServiceTest {
         assertEquals("Test Compilation", result.getFirst().getTitle());
         assertTrue(result.getFirst().getPinned());
         assertEquals(1, result.getFirst().getEvents().size());
+        assertEquals("Test Category", result.getFirst().getEvents().getFirst().getCategory().getName());
+        assertEquals("Test User", result.getFirst().getEvents().getFirst().getInitiator().getName());
     }
 
     @Test
@@ -109,6 +119,13 @@ class CompilationServiceTest {
         assertEquals(1, result.getEvents().size());
     }
 
+    @Test
+    void findByIdShouldThrowNotFoundExceptionWhenNotExists() {
+        when(compilationRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> compilationService.findById(1L));
+    }
+
     @Test
     void createShouldThrowExceptionWhenTitleExists() {
         NewCompilationDto newCompilationDto = new NewCompilationDto();
@@ -0,0 +1,211 @@
+package ru.practicum.event.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.compilation.model.Compilation;
+import ru.practicum.compilation.repository.CompilationRepository;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventSearchCommon;
+import ru.practicum.event.model.EventSearchOrder;
+import ru.practicum.event.model.EventState;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@Transactional
+@ActiveProfiles("test")
+class EventRepositoryTest {
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder().name("Test User").email("search@example.com").build());
+        category = categoryRepository.save(Category.builder().name("Концерты").build());
+    }
+
+    @Test
+    void findCommonEventsByTextShouldMatchTitleAnnotationAndDescription() {
+        saveEvent("Джазовый вечер", "Живая музыка", "Описание");
+        saveEvent("Лекция", "Про джаз и блюз", "Описание");
+        saveEvent("Выставка", "Картины", "Будет играть JAZZ-бэнд");
+        saveEvent("Спектакль", "Театр", "Описание");
+
+        List<Event> events = eventRepository.findCommonEventsByFilters(search("джаз", EventSearchOrder.EVENT_DATE));
+
+        assertEquals(List.of("Джазовый вечер", "Лекция"), events.stream().map(Event::getTitle).toList());
+        assertEquals(1, eventRepository.findCommonEventsByFilters(search("jazz", EventSearchOrder.EVENT_DATE)).size());
+    }
+
+    @Test
+    void findCommonEventsByRelevanceShouldPutTitleMatchesFirst() {
+        saveEvent("Выставка", "Картины", "Будет играть джаз");
+        saveEvent("Лекция", "Про джаз и блюз", "Описание");
+        saveEvent("Джаз в парке", "Живая музыка", "Описание");
+
+        List<Event> events = eventRepository.findCommonEventsByFilters(search("джаз", EventSearchOrder.RELEVANCE));
+
+        assertEquals(List.of("Джаз в парке", "Лекция", "Выставка"), events.stream().map(Event::getTitle).toList());
+    }
+
+    @Test
+    void findCommonEventsByViewsShouldOrderAcrossPages() {
+        saveEvent("Пять", 5L);
+        saveEvent("Пятьдесят", 50L);
+        saveEvent("Десять", 10L);
+        saveEvent("Сорок", 40L);
+        saveEvent("Без просмотров", null);
+
+        List<Event> firstPage = eventRepository.findCommonEventsByFilters(page(EventSearchOrder.VIEWS, 0, 2));
+        List<Event> secondPage = eventRepository.findCommonEventsByFilters(page(EventSearchOrder.VIEWS, 2, 2));
+        List<Event> thirdPage = eventRepository.findCommonEventsByFilters(page(EventSearchOrder.VIEWS, 4, 2));
+
+        assertEquals(List.of("Пятьдесят", "Сорок"), firstPage.stream().map(Event::getTitle).toList());
+        assertEquals(List.of("Десять", "Пять"), secondPage.stream().map(Event::getTitle).toList());
+        assertEquals(List.of("Без просмотров"), thirdPage.stream().map(Event::getTitle).toList());
+    }
+
+    @Test
+    void findAllByInitiatorIdAfterShouldContinueFromCursorWithTiesOnEventDate() {
+        LocalDateTime sameDate = LocalDateTime.now().plusDays(10).withNano(0);
+        saveEvent("Первое", "Аннотация", "Описание", sameDate.plusDays(1));
+        saveEvent("Второе", "Аннотация", "Описание", sameDate);
+        saveEvent("Третье", "Аннотация", "Описание", sameDate);
+        saveEvent("Четвёртое", "Аннотация", "Описание", sameDate.minusDays(1));
+
+        List<Event> firstPage = eventRepository.findAllByInitiatorId(user.getId(), 0, 2);
+        Event last = firstPage.get(firstPage.size() - 1);
+        List<Event> secondPage = eventRepository.findAllByInitiatorIdAfter(user.getId(), last.getEventDate(), last.getId(),
+                Limit.of(2));
+
+        assertEquals(List.of("Первое", "Третье"), firstPage.stream().map(Event::getTitle).toList());
+        assertEquals(List.of("Второе", "Четвёртое"), secondPage.stream().map(Event::getTitle).toList());
+    }
+
+    @Test
+    void updateViewsShouldReturnOnlyEventsWithChangedViews() {
+        Event same = saveEvent("Без изменений", 5L);
+        Event changed = saveEvent("Новые просмотры", 5L);
+        Event empty = saveEvent("Без просмотров", null);
+        entityManager.flush();
+
+        Set<Long> result = eventRepository.updateViews(Map.of(same.getId(), 5L, changed.getId(), 8L, empty.getId(), 0L));
+
+        assertEquals(Set.of(changed.getId(), empty.getId()), result);
+        assertEquals(Map.of(same.getId(), 5L, changed.getId(), 8L, empty.getId(), 0L),
+                eventRepository.findViews(List.of(same.getId(), changed.getId(), empty.getId())));
+    }
+
+    @Test
+    void saveShouldNotOverwriteFlushedViews() {
+        Event event = saveEvent("Событие", 5L);
+        entityManager.flush();
+        eventRepository.updateViews(Map.of(event.getId(), 9L));
+
+        event.setTitle("Новое название");
+        eventRepository.saveAndFlush(event);
+
+        assertEquals(Map.of(event.getId(), 9L), eventRepository.findViews(List.of(event.getId())));
+    }
+
+    @Test
+    void existsInCompilationsShouldCheckCompilationEvents() {
+        Event inCompilation = saveEvent("В подборке", 0L);
+        Event alone = saveEvent("Вне подборки", 0L);
+        compilationRepository.save(Compilation.builder()
+                .title("Подборка")
+                .pinned(false)
+                .events(Set.of(inCompilation))
+                .build());
+        entityManager.flush();
+
+        assertTrue(eventRepository.existsInCompilations(List.of(inCompilation.getId(), alone.getId())));
+        assertFalse(eventRepository.existsInCompilations(List.of(alone.getId())));
+    }
+
+    private EventSearchCommon search(String text, EventSearchOrder sort) {
+        return EventSearchCommon.builder()
+                .text(text)
+                .onlyAvailable(false)
+                .sort(sort)
+                .from(0)
+                .size(10)
+                .build();
+    }
+
+    private EventSearchCommon page(EventSearchOrder sort, int from, int size) {
+        return EventSearchCommon.builder()
+                .onlyAvailable(false)
+                .sort(sort)
+                .from(from)
+                .size(size)
+                .build();
+    }
+
+    private Event saveEvent(String title, Long views) {
+        long count = eventRepository.count();
+        return saveEvent(title, "Аннотация", "Описание", LocalDateTime.now().plusDays(count + 1), views);
+    }
+
+    private void saveEvent(String title, String annotation, String description) {
+        long count = eventRepository.count();
+        saveEvent(title, annotation, description, LocalDateTime.now().plusDays(count + 1));
+    }
+
+    private void saveEvent(String title, String annotation, String description, LocalDateTime eventDate) {
+        saveEvent(title, annotation, description, eventDate, 0L);
+    }
+
+    private Event saveEvent(String title, String annotation, String description, LocalDateTime eventDate, Long views) {
+        return eventRepository.save(Event.builder()
+                .title(title)
+                .annotation(annotation)
+                .description(description)
+                .category(category)
+                .initiator(user)
+                .createdOn(LocalDateTime.now())
+                .eventDate(eventDate)
+                .lat(55.75)
+                .lon(37.62)
+                .paid(false)
+                .participantLimit(0L)
+                .confirmedRequests(0L)
+                .requestModeration(true)
+                .state(EventState.PUBLISHED)
+                .views(views)
+                .build());
+    }
+}
@@ -6,7 +6,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import ru.practicum.StatsClient;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.repository.CategoryRepository;
 import ru.practicum.event.model.Event;
@@ -14,6 +13,7 @@ import ru.practicum.event.model.EventAdminStateAction;
 import ru.practicum.event.model.EventDto;
 import ru.practicum.event.model.EventSearchAdmin;
 import ru.practicum.event.model.EventSearchCommon;
+import ru.practicum.event.model.EventSearchOrder;
 import ru.practicum.event.model.EventState;
 import ru.practicum.event.model.EventUserStateAction;
 import ru.practicum.event.model.Location;
@@ -25,9 +25,11 @@ import ru.practicum.extention.DateValidationException;
 import ru.practicum.extention.NotFoundException;
 import ru.practicum.user.model.User;
 import ru.practicum.user.service.UserService;
+import ru.practicum.version.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,11 +47,14 @@ class EventServiceTest {
 
 
     @Mock
-    private StatsClient statsClient;
+    private EventViewsCache viewsCache;
 
     @Mock
     private UserService userService;
 
+    @Mock
+    private ResourceVersions resourceVersions;
+
     @InjectMocks
     private EventService eventService;
 
@@ -131,6 +136,23 @@ class EventServiceTest {
         verify(eventRepository).findById(1L);
     }
 
+    @Test
+    void getEventEtagShouldIncludeViewsOfPublishedEvent() {
+        when(eventRepository.existsByIdAndState(1L, EventState.PUBLISHED)).thenReturn(true);
+        when(viewsCache.get(1L)).thenReturn(42L);
+        when(resourceVersions.etag(ResourceVersions.event(1L), 42L)).thenReturn("\"v1-42\"");
+
+        assertEquals("\"v1-42\"", eventService.getEventEtag(1L));
+    }
+
+    @Test
+    void getEventEtagWhenEventNotPublishedShouldThrowNotFoundException() {
+        when(eventRepository.existsByIdAndState(1L, EventState.PUBLISHED)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () -> eventService.getEventEtag(1L));
+        verify(viewsCache, never()).get(anyLong());
+    }
+
     @Test
     void findByIdAndUserWhenUserNotExistsShouldThrowNotFoundException() {
         when(userService.findUserById(1L))
@@ -162,6 +184,28 @@ class EventServiceTest {
         verify(eventRepository).findCommonEventsByFilters(search);
     }
 
+    @Test
+    void searchCommonShouldResolveViewsForWholePageAndKeepRepositoryOrder() {
+        Event other = new Event();
+        other.setId(2L);
+        other.setTitle("Other Event");
+        other.setInitiator(user);
+        other.setCategory(category);
+        other.setLat(55.0);
+        other.setLon(37.0);
+        EventSearchCommon search = new EventSearchCommon();
+        search.setSort(EventSearchOrder.VIEWS);
+        when(eventRepository.findCommonEventsByFilters(search)).thenReturn(List.of(other, event));
+        when(viewsCache.getAll(List.of(2L, 1L))).thenReturn(Map.of(1L, 3L, 2L, 7L));
+
+        List<EventDto> result = eventService.searchCommon(search);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(EventDto::getId).toList());
+        assertEquals(7L, result.getFirst().getViews());
+        assertEquals(3L, result.get(1).getViews());
+        verify(viewsCache, times(1)).getAll(anyCollection());
+    }
+
     @Test
     void searchCommonWhenInvalidDateRangeShouldThrowDateValidationException() {
         EventSearchCommon search = new EventSearchCommon();
@@ -177,10 +221,13 @@ class EventServiceTest {
         EventSearchAdmin search = new EventSearchAdmin();
         when(eventRepository.findAdminEventsByFilters(search)).thenReturn(List.of(event));
 
+        when(viewsCache.getAll(List.of(1L))).thenReturn(Map.of(1L, 5L));
+
         List<EventDto> result = eventService.searchAdmin(search);
 
         assertEquals(1, result.size());
         assertEquals(event.getTitle(), result.getFirst().getTitle());
+        assertEquals(5L, result.getFirst().getViews());
         verify(eventRepository).findAdminEventsByFilters(search);
     }
 
@@ -188,14 +235,15 @@ class EventServiceTest {
     void findByIdWhenPublishedShouldReturnEventFullDto() {
         event.setState(EventState.PUBLISHED);
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(statsClient.getStats(anyString(), anyString(), anyList(), anyBoolean()))
-                .thenReturn(List.of());
+        when(viewsCache.get(1L)).thenReturn(4L);
 
         EventDto result = eventService.findById(1L);
 
         assertEquals(event.getTitle(), result.getTitle());
+        assertEquals(4L, result.getViews());
         verify(eventRepository).findById(1L);
-        verify(statsClient).getStats(anyString(), anyString(), anyList(), anyBoolean());
+        verify(viewsCache).get(1L);
+        verify(eventRepository, never()).save(any(Event.class));
     }
 
     @Test
@@ -0,0 +1,134 @@
+package ru.practicum.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.version.ResourceVersions;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsCacheTest {
+
+    @Mock
+    private EventViewsResolver viewsResolver;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    private EventViewsCache viewsCache;
+
+    @BeforeEach
+    void setUp() {
+        viewsCache = new EventViewsCache(viewsResolver, eventRepository, resourceVersions, 100, Duration.ofMinutes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void getShouldServeRepeatedRequestsFromCache() {
+        when(viewsResolver.getViews(1L)).thenReturn(5L);
+
+        assertEquals(5L, viewsCache.get(1L));
+        assertEquals(5L, viewsCache.get(1L));
+
+        verify(viewsResolver, times(1)).getViews(1L);
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void getAllShouldLoadMissingEventsInOneCall() {
+        when(viewsResolver.getViews(1L)).thenReturn(5L);
+        when(viewsResolver.getViews(anyCollection())).thenReturn(Map.of(2L, 7L));
+
+        viewsCache.get(1L);
+        Map<Long, Long> views = viewsCache.getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(Map.of(1L, 5L, 2L, 7L, 3L, 0L), views);
+        verify(viewsResolver, times(1)).getViews(argThat((Collection<Long> ids) -> ids.size() == 2
+                && ids.containsAll(List.of(2L, 3L))));
+    }
+
+    @Test
+    void flushShouldPersistLoadedViewsInOneBatch() {
+        when(viewsResolver.getViews(anyCollection())).thenReturn(Map.of(1L, 5L, 2L, 7L));
+        viewsCache.getAll(List.of(1L, 2L));
+
+        viewsCache.flush();
+        viewsCache.flush();
+
+        verify(eventRepository, times(1)).updateViews(Map.of(1L, 5L, 2L, 7L));
+    }
+
+    @Test
+    void flushWhenUpdateFailsShouldRetryOnNextFlush() {
+        when(viewsResolver.getViews(1L)).thenReturn(5L);
+        when(eventRepository.updateViews(anyMap()))
+                .thenThrow(new RuntimeException("База данных недоступна"))
+                .thenReturn(Set.of(1L));
+        viewsCache.get(1L);
+
+        viewsCache.flush();
+        viewsCache.flush();
+
+        verify(eventRepository, times(2)).updateViews(Map.of(1L, 5L));
+    }
+
+    @Test
+    void flushShouldTouchCompilationsOnlyWhenChangedEventIsInCompilation() {
+        when(viewsResolver.getViews(anyCollection())).thenReturn(Map.of(1L, 5L, 2L, 7L));
+        when(eventRepository.updateViews(anyMap())).thenReturn(Set.of(1L));
+        when(eventRepository.existsInCompilations(Set.of(1L))).thenReturn(true);
+        viewsCache.getAll(List.of(1L, 2L));
+
+        viewsCache.flush();
+
+        verify(resourceVersions, times(1)).touch(ResourceVersions.COMPILATIONS);
+    }
+
+    @Test
+    void flushShouldNotTouchCompilationsWhenViewsAreUnchangedOrOutsideCompilations() {
+        when(viewsResolver.getViews(1L)).thenReturn(5L);
+        when(viewsResolver.getViews(2L)).thenReturn(7L);
+        when(eventRepository.updateViews(anyMap())).thenReturn(Set.of()).thenReturn(Set.of(2L));
+        when(eventRepository.existsInCompilations(Set.of(2L))).thenReturn(false);
+
+        viewsCache.get(1L);
+        viewsCache.flush();
+        viewsCache.get(2L);
+        viewsCache.flush();
+
+        verify(resourceVersions, never()).touch(any());
+    }
+
+    @Test
+    void getWhenStatsUnavailableShouldServeLastSavedViews() {
+        when(viewsResolver.getViews(1L)).thenThrow(new RuntimeException("Сервис статистики недоступен"));
+        when(eventRepository.findViews(Set.of(1L))).thenReturn(Map.of(1L, 9L));
+
+        assertEquals(9L, viewsCache.get(1L));
+        viewsCache.flush();
+
+        verify(eventRepository, never()).updateViews(anyMap());
+    }
+
+    @Test
+    void getAllWhenStatsUnavailableShouldServeLastSavedViews() {
+        when(viewsResolver.getViews(anyCollection())).thenThrow(new RuntimeException("Сервис статистики недоступен"));
+        when(eventRepository.findViews(anyCollection())).thenReturn(Map.of(1L, 9L));
+
+        assertEquals(Map.of(1L, 9L, 2L, 0L), viewsCache.getAll(List.of(1L, 2L)));
+    }
+}
@@ -0,0 +1,99 @@
+package ru.practicum.event.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.AsyncStatsClient;
+import ru.practicum.StatsClientException;
+import ru.practicum.dto.StatsDto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewsResolverTest {
+
+    @Mock
+    private AsyncStatsClient statsClient;
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("stats-service");
+
+    private EventViewsResolver viewsResolver;
+
+    @BeforeEach
+    void setUp() {
+        viewsResolver = new EventViewsResolver(statsClient, circuitBreaker, 2);
+    }
+
+    @Test
+    void getViewsShouldRequestAllEventUrisInOneCall() {
+        when(statsClient.getStats(anyString(), anyString(), anyList(), eq(true))).thenReturn(stats(
+                new StatsDto("ewm-main-service", "/events/2", 4L),
+                new StatsDto("ewm-main-service", "/events/1", 2L)));
+
+        Map<Long, Long> views = viewsResolver.getViews(List.of(1L, 2L, 2L));
+
+        assertEquals(Map.of(1L, 2L, 2L, 4L), views);
+        verify(statsClient, times(1)).getStats(anyString(), anyString(),
+                eq(List.of("/events/1", "/events/2")), eq(true));
+    }
+
+    @Test
+    void getViewsShouldSplitLargeRequestsIntoConcurrentChunks() {
+        CompletableFuture<List<StatsDto>> firstChunk = new CompletableFuture<>();
+        when(statsClient.getStats(anyString(), anyString(), eq(List.of("/events/1", "/events/2")), eq(true)))
+                .thenReturn(firstChunk);
+        when(statsClient.getStats(anyString(), anyString(), eq(List.of("/events/3")), eq(true)))
+                .thenReturn(stats(new StatsDto("ewm-main-service", "/events/3", 6L)));
+
+        CompletableFuture<Map<Long, Long>> views = viewsResolver.getViewsAsync(List.of(1L, 2L, 3L));
+
+        // Второй запрос отправлен, не дожидаясь ответа на первый
+        verify(statsClient).getStats(anyString(), anyString(), eq(List.of("/events/3")), eq(true));
+        assertFalse(views.isDone());
+        firstChunk.complete(List.of(new StatsDto("ewm-main-service", "/events/1", 2L)));
+        assertEquals(Map.of(1L, 2L, 3L, 6L), views.join());
+    }
+
+    @Test
+    void getViewsWhenStatsFailsShouldRethrowCause() {
+        when(statsClient.getStats(anyString(), anyString(), anyList(), eq(true)))
+                .thenReturn(CompletableFuture.failedFuture(new StatsClientException(503, "Сервис недоступен")));
+
+        assertThrows(StatsClientException.class, () -> viewsResolver.getViews(1L));
+    }
+
+    @Test
+    void getViewsForEmptyListShouldNotCallStats() {
+        assertTrue(viewsResolver.getViews(List.of()).isEmpty());
+        verifyNoInteractions(statsClient);
+    }
+
+    @Test
+    void getViewsForSingleEventWithoutStatsShouldReturnZero() {
+        when(statsClient.getStats(anyString(), anyString(), anyList(), eq(true))).thenReturn(stats());
+
+        assertEquals(0L, viewsResolver.getViews(1L));
+    }
+
+    @Test
+    void getViewsWhenCircuitOpenShouldFailFastWithoutCallingStats() {
+        circuitBreaker.transitionToOpenState();
+
+        assertThrows(CallNotPermittedException.class, () -> viewsResolver.getViews(1L));
+        verifyNoInteractions(statsClient);
+    }
+
+    private CompletableFuture<List<StatsDto>> stats(StatsDto... stats) {
+        return CompletableFuture.completedFuture(List.of(stats));
+    }
+}
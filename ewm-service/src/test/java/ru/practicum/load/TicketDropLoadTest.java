@@ -0,0 +1,160 @@
+package ru.practicum.load;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.EWMServiceApp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Запуск: mvn test -Pload-test
+@Slf4j
+@Tag("load")
+class TicketDropLoadTest {
+    private static final int PARTICIPANT_LIMIT = 1000;
+    private static final int REQUESTERS = 4000;
+    private static final int CONNECTIONS = 50;
+
+    private static HttpServer statsServer;
+
+    @BeforeAll
+    static void startStatsServer() throws IOException {
+        statsServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        statsServer.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        statsServer.start();
+    }
+
+    @AfterAll
+    static void stopStatsServer() {
+        statsServer.stop(0);
+    }
+
+    @Test
+    void ticketDropShouldAdmitFasterWithoutOverbooking() throws Exception {
+        double rowLocking = measure(false);
+        double ticketDrop = measure(true);
+
+        log.info("POST /users/{userId}/requests, {} заявок на {} мест: блокировка строки события - {} заявок/с, "
+                        + "продажа билетов - {} заявок/с",
+                REQUESTERS, PARTICIPANT_LIMIT, Math.round(rowLocking), Math.round(ticketDrop));
+        assertTrue(ticketDrop > rowLocking);
+    }
+
+    private double measure(boolean ticketDrop) throws Exception {
+        try (ConfigurableApplicationContext context = start(ticketDrop);
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            long eventId = createEvent(jdbcTemplate);
+            List<Long> userIds = createUsers(jdbcTemplate);
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            long started = System.nanoTime();
+            int created = run(client, baseUrl, eventId, userIds);
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+            assertEquals(PARTICIPANT_LIMIT, created);
+            assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject(
+                    "SELECT confirmed_requests FROM events WHERE id = ?", Long.class, eventId));
+            assertEquals(PARTICIPANT_LIMIT, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM requests WHERE event_id = ?", Long.class, eventId));
+            return REQUESTERS / seconds;
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean ticketDrop) {
+        return new SpringApplicationBuilder(EWMServiceApp.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=true",
+                        "spring.datasource.url=jdbc:h2:mem:ewm-tickets-" + ticketDrop + ";LOCK_TIMEOUT=60000",
+                        "spring.datasource.hikari.maximum-pool-size=" + CONNECTIONS,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.ru.practicum.load=INFO",
+                        "EWMServiceApp.stats-service.url=http://localhost:" + statsServer.getAddress().getPort(),
+                        "EWMServiceApp.ticket-drop.enabled=" + ticketDrop)
+                .run();
+    }
+
+    private long createEvent(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('organizer', 'organizer@practicum.ru')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('concerts')");
+        Long initiatorId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'organizer@practicum.ru'", Long.class);
+        Long categoryId = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'concerts'", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO events (annotation, category_id, confirmed_requests, pending_requests, "
+                        + "rejected_requests, canceled_requests, created_on, description, event_date, initiator_id, "
+                        + "lat, lon, paid, participant_limit, published_on, request_moderation, state, title, views) "
+                        + "VALUES ('Старт продаж', ?, 0, 0, 0, 0, ?, 'Описание', ?, ?, 55.75, 37.62, FALSE, ?, ?, "
+                        + "FALSE, 'PUBLISHED', 'Концерт', 0)",
+                categoryId, now, now.plusDays(30), initiatorId, PARTICIPANT_LIMIT, now);
+        return jdbcTemplate.queryForObject("SELECT id FROM events WHERE title = 'Концерт'", Long.class);
+    }
+
+    private List<Long> createUsers(JdbcTemplate jdbcTemplate) {
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            users.add(new Object[]{"Зритель " + i, "fan" + i + "@practicum.ru"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", users);
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE 'fan%'", Long.class);
+    }
+
+    private int run(HttpClient client, String baseUrl, long eventId, List<Long> userIds) throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create(baseUrl + "/users/" + userId + "/requests?eventId=" + eventId))
+                            .POST(HttpRequest.BodyPublishers.noBody())
+                            .build();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 201) {
+                        created.incrementAndGet();
+                    } else {
+                        assertEquals(409, response.statusCode());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return created.get();
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.load;
+
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.EWMServiceApp;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Запуск: mvn test -Pload-test
+@Slf4j
+@Tag("load")
+class VirtualThreadsLoadTest {
+    private static final int EVENTS = 50;
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    private static final int TOMCAT_THREADS = 20;
+    private static final long STATS_DELAY_MS = 50;
+
+    private static HttpServer statsServer;
+
+    @BeforeAll
+    static void startStatsServer() throws IOException {
+        statsServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        statsServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        statsServer.createContext("/stats", exchange -> {
+            sleep(STATS_DELAY_MS);
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        statsServer.createContext("/hits/batch", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(201, -1);
+            exchange.close();
+        });
+        statsServer.start();
+    }
+
+    @AfterAll
+    static void stopStatsServer() {
+        statsServer.stop(0);
+    }
+
+    @Test
+    void virtualThreadsShouldServeMoreRequestsWhenRequestsBlock() throws Exception {
+        double platform = measure(false);
+        double virtual = measure(true);
+
+        log.info("GET /events/{id}, {} клиентов: пул Tomcat из {} потоков - {} запросов/с, виртуальные потоки - {} запросов/с",
+                CLIENTS, TOMCAT_THREADS, Math.round(platform), Math.round(virtual));
+        assertTrue(virtual > platform);
+    }
+
+    private double measure(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = start(virtualThreads);
+             HttpClient client = HttpClient.newBuilder()
+                     .executor(Executors.newVirtualThreadPerTaskExecutor())
+                     .build()) {
+            List<Long> eventIds = createEvents(context.getBean(JdbcTemplate.class));
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            run(client, baseUrl, eventIds, CLIENTS, 1);
+            long started = System.nanoTime();
+            int completed = run(client, baseUrl, eventIds, CLIENTS, REQUESTS_PER_CLIENT);
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+            assertEquals(CLIENTS * REQUESTS_PER_CLIENT, completed);
+            return completed / seconds;
+        }
+    }
+
+    private ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(EWMServiceApp.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:ewm-load-" + virtualThreads,
+                        "spring.datasource.hikari.maximum-pool-size=" + CLIENTS,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN",
+                        "logging.level.ru.practicum.load=INFO",
+                        "EWMServiceApp.stats-service.url=http://localhost:" + statsServer.getAddress().getPort(),
+                        // Без кэша просмотров каждый запрос обращается к сервису статистики
+                        "EWMServiceApp.views-cache.maximum-size=0")
+                .run();
+    }
+
+    private List<Long> createEvents(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('load', 'load@practicum.ru')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('load')");
+        Long userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = 'load@practicum.ru'", Long.class);
+        Long categoryId = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'load'", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < EVENTS; i++) {
+            jdbcTemplate.update("INSERT INTO events (annotation, category_id, confirmed_requests, pending_requests, "
+                            + "rejected_requests, canceled_requests, created_on, description, event_date, initiator_id, "
+                            + "lat, lon, paid, participant_limit, published_on, request_moderation, state, title, views) "
+                            + "VALUES (?, ?, 0, 0, 0, 0, ?, ?, ?, ?, 55.75, 37.62, FALSE, 0, ?, FALSE, 'PUBLISHED', ?, 0)",
+                    "Нагрузочное событие " + i, categoryId, now, "Описание", now.plusDays(10),
+                    userId, now, "Событие " + i);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM events", Long.class);
+    }
+
+    private int run(HttpClient client, String baseUrl, List<Long> eventIds, int clients, int requestsPerClient)
+            throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++) {
+                int clientNumber = c;
+                futures.add(executor.submit(() -> {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        Long eventId = eventIds.get((clientNumber + r) % eventIds.size());
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/events/" + eventId)).build();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            completed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        return completed.get();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
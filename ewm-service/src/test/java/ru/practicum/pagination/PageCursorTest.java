@@ -0,0 +1,47 @@
+package ru.practicum.pagination;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.extention.InvalidCursorException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decodeShouldRestoreEncodedCursor() {
+        LocalDateTime eventDate = LocalDateTime.of(2025, 5, 1, 18, 30);
+        PageCursor cursor = PageCursor.of(eventDate, 42L);
+
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+
+        assertEquals(cursor, decoded);
+        assertEquals(eventDate, decoded.getDateKey());
+        assertEquals(42L, decoded.getId());
+    }
+
+    @Test
+    void decodeWhenTokenIsMalformedShouldThrowInvalidCursorException() {
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode("%%%"));
+        assertThrows(InvalidCursorException.class, () -> PageCursor.decode(PageCursor.of(1L).encode() + "AAA"));
+    }
+
+    @Test
+    void getDateKeyWhenCursorHasNoDateShouldThrowInvalidCursorException() {
+        PageCursor cursor = PageCursor.decode(PageCursor.of(7L).encode());
+
+        assertThrows(InvalidCursorException.class, cursor::getDateKey);
+    }
+
+    @Test
+    void toResponseShouldAddNextCursorOnlyForFullPage() {
+        ResponseEntity<List<Long>> full = PageCursor.toResponse(List.of(1L, 2L), 2, PageCursor::of);
+        ResponseEntity<List<Long>> partial = PageCursor.toResponse(List.of(3L), 2, PageCursor::of);
+
+        assertEquals(PageCursor.of(2L).encode(), full.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER));
+        assertNull(partial.getHeaders().getFirst(PageCursor.NEXT_CURSOR_HEADER));
+    }
+}
@@ -171,4 +171,123 @@ class ParticipationRequestIntegrationTest {
         mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", user.getId(), unpublishedEvent.getId()))
                 .andExpect(status().isConflict());
     }
+
+    @Test
+    void confirmRequestsWhenLimitReachedShouldRejectRemainingPending() throws Exception {
+        event.setParticipantLimit(1L);
+        eventRepository.save(event);
+        User secondUser = userRepository.save(User.builder()
+                .name("Second")
+                .email("second@example.com")
+                .build());
+        ParticipationRequest secondRequest = requestRepository.save(ParticipationRequest.builder()
+                .requester(secondUser)
+                .event(event)
+                .status(ParticipationRequestStatus.PENDING)
+                .created(LocalDateTime.now())
+                .build());
+
+        mockMvc.perform(patch("/users/{userId}/events/{eventId}/requests", event.getInitiator().getId(), event.getId())
+                        .contentType("application/json")
+                        .content("{\"requestIds\":[" + request.getId() + "],\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.confirmedRequests", hasSize(1)))
+                .andExpect(jsonPath("$.confirmedRequests[0].id").value(request.getId()))
+                .andExpect(jsonPath("$.confirmedRequests[0].status").value("CONFIRMED"))
+                .andExpect(jsonPath("$.rejectedRequests", hasSize(1)))
+                .andExpect(jsonPath("$.rejectedRequests[0].id").value(secondRequest.getId()))
+                .andExpect(jsonPath("$.rejectedRequests[0].status").value("REJECTED"));
+
+        assertEquals(ParticipationRequestStatus.CONFIRMED,
+                requestRepository.findById(request.getId()).orElseThrow().getStatus());
+        assertEquals(ParticipationRequestStatus.REJECTED,
+                requestRepository.findById(secondRequest.getId()).orElseThrow().getStatus());
+        assertEquals(1L, eventRepository.findConfirmedRequestsById(event.getId()));
+    }
+
+    @Test
+    void updateStatusWhenRequestNotPendingShouldReturnConflict() throws Exception {
+        mockMvc.perform(patch("/users/{userId}/requests/{requestId}/cancel", user.getId(), request.getId()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/users/{userId}/events/{eventId}/requests", event.getInitiator().getId(), event.getId())
+                        .contentType("application/json")
+                        .content("{\"requestIds\":[" + request.getId() + "],\"status\":\"REJECTED\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void requestCountersShouldFollowStatusChanges() throws Exception {
+        Long initiatorId = event.getInitiator().getId();
+        User secondUser = userRepository.save(User.builder()
+                .name("Second")
+                .email("second@example.com")
+                .build());
+        User thirdUser = userRepository.save(User.builder()
+                .name("Third")
+                .email("third@example.com")
+                .build());
+        Long secondRequestId = createRequest(secondUser.getId());
+        Long thirdRequestId = createRequest(thirdUser.getId());
+
+        mockMvc.perform(patch("/users/{userId}/events/{eventId}/requests", initiatorId, event.getId())
+                        .contentType("application/json")
+                        .content("{\"requestIds\":[" + secondRequestId + "],\"status\":\"CONFIRMED\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/users/{userId}/events/{eventId}/requests", initiatorId, event.getId())
+                        .contentType("application/json")
+                        .content("{\"requestIds\":[" + thirdRequestId + "],\"status\":\"REJECTED\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/users/{userId}/requests/{requestId}/cancel", secondUser.getId(), secondRequestId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/{userId}/events/{eventId}/requests/counts", initiatorId, event.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.PENDING").value(0))
+                .andExpect(jsonPath("$.CONFIRMED").value(0))
+                .andExpect(jsonPath("$.REJECTED").value(1))
+                .andExpect(jsonPath("$.CANCELED").value(1));
+    }
+
+    @Test
+    void createDuplicateRequestShouldReturnConflict() throws Exception {
+        mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", user.getId(), event.getId()))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void createWithSameIdempotencyKeyShouldReturnStoredRequest() throws Exception {
+        requestRepository.deleteAll();
+
+        String first = mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", user.getId(), event.getId())
+                        .header("Idempotency-Key", "click-1"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String replay = mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", user.getId(), event.getId())
+                        .header("Idempotency-Key", "click-1"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(first, replay);
+        assertEquals(1, requestRepository.findAll().size());
+    }
+
+    @Test
+    void createWithIdempotencyKeyOfAnotherEventShouldReturnConflict() throws Exception {
+        requestRepository.deleteAll();
+        mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", user.getId(), event.getId())
+                        .header("Idempotency-Key", "click-2"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", user.getId(), event.getId() + 1)
+                        .header("Idempotency-Key", "click-2"))
+                .andExpect(status().isConflict());
+    }
+
+    private Long createRequest(Long userId) throws Exception {
+        String response = mockMvc.perform(post("/users/{userId}/requests?eventId={eventId}", userId, event.getId()))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(response).get("id").asLong();
+    }
 }
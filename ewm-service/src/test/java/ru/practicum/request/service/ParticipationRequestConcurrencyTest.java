@@ -0,0 +1,162 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.request.model.ParticipationRequestStatus;
+import ru.practicum.request.repository.ParticipationRequestRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ParticipationRequestConcurrencyTest {
+    private static final int PARTICIPANT_LIMIT = 50;
+    private static final int REQUESTERS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ParticipationRequestService participationRequestService;
+
+    @Autowired
+    private ParticipationRequestRepository participationRequestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Event event;
+    private List<User> requesters;
+
+    @BeforeEach
+    void setUp() {
+        User initiator = userRepository.save(User.builder().name("Initiator").email("initiator@concurrency.ru").build());
+        Category category = categoryRepository.save(Category.builder().name("Нагрузочный тест").build());
+        event = eventRepository.save(Event.builder()
+                .title("Популярное событие")
+                .annotation("Аннотация популярного события")
+                .description("Описание популярного события")
+                .category(category)
+                .initiator(initiator)
+                .createdOn(LocalDateTime.now())
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .lat(55.75)
+                .lon(37.62)
+                .paid(false)
+                .participantLimit((long) PARTICIPANT_LIMIT)
+                .confirmedRequests(0L)
+                .requestModeration(false)
+                .state(EventState.PUBLISHED)
+                .views(0L)
+                .build());
+
+        requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(User.builder().name("User " + i).email("user" + i + "@concurrency.ru").build());
+        }
+        requesters = userRepository.saveAll(requesters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        participationRequestRepository.deleteAll();
+        eventRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createInParallelShouldNotOverbookEvent() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (User requester : requesters) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        participationRequestService.create(requester.getId(), event.getId());
+                    } catch (ConditionsNotMetException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long confirmed = participationRequestRepository.findAllByEventId(event.getId()).stream()
+                .filter(request -> request.getStatus() == ParticipationRequestStatus.CONFIRMED)
+                .count();
+
+        assertEquals(PARTICIPANT_LIMIT, eventRepository.findConfirmedRequestsById(event.getId()));
+        assertEquals(PARTICIPANT_LIMIT, confirmed);
+        assertEquals(REQUESTERS - PARTICIPANT_LIMIT, rejected.get());
+        assertTrue(futures.stream().allMatch(Future::isDone));
+    }
+
+    @Test
+    void duplicateCreateInParallelShouldReserveOneSeat() throws Exception {
+        User requester = requesters.getFirst();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        participationRequestService.create(requester.getId(), event.getId());
+                    } catch (ConditionsNotMetException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, participationRequestRepository.findAllByEventId(event.getId()).size());
+        assertEquals(1L, eventRepository.findConfirmedRequestsById(event.getId()));
+        assertEquals(THREADS - 1, rejected.get());
+    }
+}
@@ -0,0 +1,110 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.CacheConfig;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.request.model.EventRequestStatusUpdateRequest;
+import ru.practicum.request.model.ParticipationRequest;
+import ru.practicum.request.model.ParticipationRequestStatus;
+import ru.practicum.request.repository.ParticipationRequestRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "spring.cache.type=caffeine")
+@ActiveProfiles("test")
+class ParticipationRequestServiceCacheTest {
+
+    @Autowired
+    private ParticipationRequestService participationRequestService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private ParticipationRequestRepository participationRequestRepository;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private EventRepository eventRepository;
+
+    private User user;
+    private User initiator;
+    private Event event;
+    private ParticipationRequest request;
+    private Cache events;
+
+    @BeforeEach
+    void setUp() {
+        user = User.builder().id(1L).name("User").email("user@example.com").build();
+        initiator = User.builder().id(2L).name("Initiator").email("initiator@example.com").build();
+        event = Event.builder()
+                .id(1L)
+                .initiator(initiator)
+                .state(EventState.PUBLISHED)
+                .participantLimit(10L)
+                .confirmedRequests(5L)
+                .pendingRequests(1L)
+                .rejectedRequests(0L)
+                .canceledRequests(0L)
+                .build();
+        request = new ParticipationRequest();
+        request.setId(1L);
+        request.setRequester(user);
+        request.setEvent(event);
+        request.setCreated(LocalDateTime.now());
+
+        events = cacheManager.getCache(CacheConfig.EVENTS);
+        events.put("search", List.of());
+    }
+
+    @Test
+    void cancelConfirmedRequestShouldEvictCachedEventSearches() {
+        request.setStatus(ParticipationRequestStatus.CONFIRMED);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(participationRequestRepository.findById(1L)).thenReturn(Optional.of(request));
+        when(eventRepository.findConfirmedRequestsById(1L)).thenReturn(4L);
+        when(participationRequestRepository.save(any())).thenReturn(request);
+
+        participationRequestService.cancel(1L, 1L);
+
+        assertNull(events.get("search"));
+    }
+
+    @Test
+    void rejectRequestsShouldKeepCachedEventSearches() {
+        request.setStatus(ParticipationRequestStatus.PENDING);
+        EventRequestStatusUpdateRequest updateRequest = new EventRequestStatusUpdateRequest();
+        updateRequest.setRequestIds(Set.of(1L));
+        updateRequest.setStatus(ParticipationRequestStatus.REJECTED);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
+        when(participationRequestRepository.updatePendingStatus(1L, Set.of(1L), ParticipationRequestStatus.REJECTED))
+                .thenReturn(1);
+
+        participationRequestService.updateStatus(2L, 1L, updateRequest);
+
+        assertNotNull(events.get("search"));
+    }
+}
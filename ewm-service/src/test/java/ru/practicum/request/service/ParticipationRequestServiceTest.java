@@ -3,7 +3,6 @@ package ru.practicum.request.service;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.event.model.Event;
@@ -19,14 +18,19 @@ import ru.practicum.request.model.ParticipationRequestStatus;
 import ru.practicum.request.repository.ParticipationRequestRepository;
 import ru.practicum.user.model.User;
 import ru.practicum.user.repository.UserRepository;
+import ru.practicum.version.ResourceVersions;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,7 +45,9 @@ class ParticipationRequestServiceTest {
     @Mock
     private EventRepository eventRepository;
 
-    @InjectMocks
+    @Mock
+    private ResourceVersions resourceVersions;
+
     private ParticipationRequestService participationRequestService;
 
     private User user;
@@ -52,6 +58,9 @@ class ParticipationRequestServiceTest {
 
     @BeforeEach
     void setUp() {
+        participationRequestService = new ParticipationRequestService(participationRequestRepository, userRepository,
+                eventRepository, resourceVersions, new ParticipationRequestValidator(userRepository, eventRepository));
+
         user = new User();
         user.setId(1L);
         user.setName("User");
@@ -130,25 +139,53 @@ class ParticipationRequestServiceTest {
     }
 
     @Test
-    void createShouldCreateRequest() {
+    void getStatusCountsShouldReadEventCounters() {
+        event.setPendingRequests(7L);
+        event.setRejectedRequests(2L);
+        when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+
+        Map<ParticipationRequestStatus, Long> counts = participationRequestService.getStatusCounts(2L, 1L);
+
+        assertEquals(Map.of(ParticipationRequestStatus.PENDING, 7L,
+                ParticipationRequestStatus.CONFIRMED, 5L,
+                ParticipationRequestStatus.REJECTED, 2L,
+                ParticipationRequestStatus.CANCELED, 0L), counts);
+        verifyNoInteractions(participationRequestRepository);
+    }
+
+    @Test
+    void getStatusCountsWhenNotInitiatorShouldThrowConditionsNotMetException() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventIdAndRequesterId(1L, 1L)).thenReturn(List.of());
-        when(participationRequestRepository.save(any())).thenReturn(request);
+
+        assertThrows(ConditionsNotMetException.class,
+                () -> participationRequestService.getStatusCounts(1L, 1L));
+        verifyNoInteractions(participationRequestRepository);
+    }
+
+    @Test
+    void createShouldCreateRequest() {
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.existsByEventIdAndRequesterId(1L, 1L)).thenReturn(false);
+        when(participationRequestRepository.insertAbsent(eq(1L), anyList())).thenReturn(Map.of(1L, 7L));
 
         ParticipationRequestDto result = participationRequestService.create(1L, 1L);
 
-        assertNotNull(result);
-        assertEquals(request.getId(), result.getId());
-        verify(userRepository).findById(1L);
+        assertEquals(7L, result.getId());
+        assertEquals(1L, result.getRequester());
+        assertEquals(1L, result.getEvent());
+        assertEquals(ParticipationRequestStatus.PENDING, result.getStatus());
         verify(eventRepository).findById(1L);
-        verify(participationRequestRepository).save(any());
+        verify(participationRequestRepository, never()).save(any());
+        verify(eventRepository).shiftRequestCounters(1L, 1, 0, 0);
     }
 
     @Test
     void createWhenOwnEventShouldThrowConditionsNotMetException() {
         event.setInitiator(user);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
 
         assertThrows(ConditionsNotMetException.class,
@@ -158,7 +195,7 @@ class ParticipationRequestServiceTest {
     @Test
     void createWhenEventNotPublishedShouldThrowConditionsNotMetException() {
         event.setState(EventState.PENDING);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
 
         assertThrows(ConditionsNotMetException.class,
@@ -167,9 +204,9 @@ class ParticipationRequestServiceTest {
 
     @Test
     void createWhenDuplicateRequestShouldThrowConditionsNotMetException() {
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventIdAndRequesterId(1L, 1L)).thenReturn(List.of(request));
+        when(participationRequestRepository.existsByEventIdAndRequesterId(1L, 1L)).thenReturn(true);
 
         assertThrows(ConditionsNotMetException.class,
                 () -> participationRequestService.create(1L, 1L));
@@ -178,19 +215,66 @@ class ParticipationRequestServiceTest {
     @Test
     void createWhenLimitReachedShouldThrowConditionsNotMetException() {
         event.setConfirmedRequests(10L);
-        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.existsByEventIdAndRequesterId(1L, 1L)).thenReturn(false);
+
+        assertThrows(ConditionsNotMetException.class,
+                () -> participationRequestService.create(1L, 1L));
+    }
+
+    @Test
+    void createWhenNoModerationShouldReserveSeat() {
+        event.setRequestModeration(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.existsByEventIdAndRequesterId(1L, 1L)).thenReturn(false);
+        when(participationRequestRepository.insertAbsent(eq(1L), anyList())).thenReturn(Map.of(1L, 7L));
+        when(eventRepository.incrementConfirmedRequests(1L, 1L)).thenReturn(1);
+        when(eventRepository.findConfirmedRequestsById(1L)).thenReturn(6L);
+
+        ParticipationRequestDto result = participationRequestService.create(1L, 1L);
+
+        assertEquals(ParticipationRequestStatus.CONFIRMED, result.getStatus());
+        assertEquals(6L, event.getConfirmedRequests());
+        verify(eventRepository, never()).save(any());
+        verify(eventRepository, never()).shiftRequestCounters(anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void createWhenSeatTakenConcurrentlyShouldThrowConditionsNotMetException() {
+        event.setRequestModeration(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.existsByEventIdAndRequesterId(1L, 1L)).thenReturn(false);
+        when(participationRequestRepository.insertAbsent(eq(1L), anyList())).thenReturn(Map.of(1L, 7L));
+        when(eventRepository.incrementConfirmedRequests(1L, 1L)).thenReturn(0);
+
+        assertThrows(ConditionsNotMetException.class,
+                () -> participationRequestService.create(1L, 1L));
+    }
+
+    @Test
+    void createWhenDuplicateInsertedConcurrentlyShouldNotReserveSeat() {
+        event.setRequestModeration(false);
+        when(userRepository.existsById(1L)).thenReturn(true);
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventIdAndRequesterId(1L, 1L)).thenReturn(List.of());
+        when(participationRequestRepository.existsByEventIdAndRequesterId(1L, 1L)).thenReturn(false);
+        when(participationRequestRepository.insertAbsent(eq(1L), anyList())).thenReturn(Map.of());
 
         assertThrows(ConditionsNotMetException.class,
                 () -> participationRequestService.create(1L, 1L));
+        verify(eventRepository, never()).incrementConfirmedRequests(anyLong(), anyLong());
+        verify(eventRepository, never()).shiftRequestCounters(anyLong(), anyLong(), anyLong(), anyLong());
     }
 
     @Test
     void cancelShouldCancelRequest() {
+        request.setStatus(ParticipationRequestStatus.CONFIRMED);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
         when(participationRequestRepository.findById(1L)).thenReturn(Optional.of(request));
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(eventRepository.decrementConfirmedRequests(1L, 1L)).thenReturn(1);
+        when(eventRepository.findConfirmedRequestsById(1L)).thenReturn(4L);
         when(participationRequestRepository.save(any())).thenReturn(request);
 
         ParticipationRequestDto result = participationRequestService.cancel(1L, 1L);
@@ -198,6 +282,33 @@ class ParticipationRequestServiceTest {
         assertEquals(ParticipationRequestStatus.CANCELED, request.getStatus());
         assertEquals(4L, event.getConfirmedRequests());
         assertNotNull(result);
+        verify(eventRepository).shiftRequestCounters(1L, 0, 0, 1);
+    }
+
+    @Test
+    void cancelWhenPendingShouldNotReleaseSeat() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(participationRequestRepository.findById(1L)).thenReturn(Optional.of(request));
+        when(participationRequestRepository.save(any())).thenReturn(request);
+
+        participationRequestService.cancel(1L, 1L);
+
+        assertEquals(ParticipationRequestStatus.CANCELED, request.getStatus());
+        assertEquals(5L, event.getConfirmedRequests());
+        verify(eventRepository, never()).decrementConfirmedRequests(any(), anyLong());
+        verify(eventRepository).shiftRequestCounters(1L, -1, 0, 1);
+    }
+
+    @Test
+    void cancelWhenAlreadyCanceledShouldNotChangeCounters() {
+        request.setStatus(ParticipationRequestStatus.CANCELED);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(participationRequestRepository.findById(1L)).thenReturn(Optional.of(request));
+        when(participationRequestRepository.save(any())).thenReturn(request);
+
+        participationRequestService.cancel(1L, 1L);
+
+        verify(eventRepository, never()).shiftRequestCounters(anyLong(), anyLong(), anyLong(), anyLong());
     }
 
     @Test
@@ -213,14 +324,51 @@ class ParticipationRequestServiceTest {
     void updateStatusShouldConfirmRequests() {
         when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventId(1L)).thenReturn(List.of(request));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
+        when(eventRepository.incrementConfirmedRequests(1L, 1L)).thenReturn(1);
+        when(eventRepository.findConfirmedRequestsById(1L)).thenReturn(6L);
+        when(participationRequestRepository.updatePendingStatus(1L, Set.of(1L), ParticipationRequestStatus.CONFIRMED))
+                .thenReturn(1);
 
         EventRequestStatusUpdateResult result = participationRequestService.updateStatus(2L, 1L, updateRequest);
 
         assertEquals(1, result.getConfirmedRequests().size());
+        assertEquals(ParticipationRequestStatus.CONFIRMED, result.getConfirmedRequests().iterator().next().getStatus());
         assertEquals(0, result.getRejectedRequests().size());
         assertEquals(6L, event.getConfirmedRequests());
-        assertEquals(ParticipationRequestStatus.CONFIRMED, request.getStatus());
+        verify(participationRequestRepository, never()).findAllByEventId(anyLong());
+        verify(participationRequestRepository, never()).saveAll(any());
+        verify(participationRequestRepository, never()).findPendingForUpdate(anyLong());
+        verify(eventRepository).shiftRequestCounters(1L, -1, 0, 0);
+    }
+
+    @Test
+    void updateStatusWhenRequestOfAnotherEventShouldThrowNotFoundException() {
+        updateRequest.setRequestIds(Set.of(1L, 3L));
+
+        when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L, 3L))).thenReturn(List.of(request));
+
+        NotFoundException exception = assertThrows(NotFoundException.class,
+                () -> participationRequestService.updateStatus(2L, 1L, updateRequest));
+
+        assertEquals("Заявки на участие с id=[3] не найдены", exception.getMessage());
+        verify(participationRequestRepository, never()).updatePendingStatus(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateStatusWhenRequestChangedConcurrentlyShouldThrowConditionsNotMetException() {
+        when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
+        when(eventRepository.incrementConfirmedRequests(1L, 1L)).thenReturn(1);
+        when(eventRepository.findConfirmedRequestsById(1L)).thenReturn(6L);
+        when(participationRequestRepository.updatePendingStatus(1L, Set.of(1L), ParticipationRequestStatus.CONFIRMED))
+                .thenReturn(0);
+
+        assertThrows(ConditionsNotMetException.class,
+                () -> participationRequestService.updateStatus(2L, 1L, updateRequest));
     }
 
     @Test
@@ -263,8 +411,14 @@ class ParticipationRequestServiceTest {
 
         when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventId(1L))
-                .thenReturn(List.of(request, request2));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
+        when(eventRepository.incrementConfirmedRequests(1L, 1L)).thenReturn(1);
+        when(eventRepository.findConfirmedRequestsById(1L)).thenReturn(10L);
+        when(participationRequestRepository.updatePendingStatus(1L, Set.of(1L), ParticipationRequestStatus.CONFIRMED))
+                .thenReturn(1);
+        when(participationRequestRepository.findPendingForUpdate(1L)).thenReturn(List.of(request2));
+        when(participationRequestRepository.updatePendingStatus(1L, Set.of(2L), ParticipationRequestStatus.REJECTED))
+                .thenReturn(1);
 
         updateRequest.setRequestIds(Set.of(1L));
 
@@ -272,8 +426,10 @@ class ParticipationRequestServiceTest {
 
         assertEquals(1, result.getConfirmedRequests().size());
         assertEquals(1, result.getRejectedRequests().size());
-        assertEquals(ParticipationRequestStatus.CONFIRMED, request.getStatus());
-        assertEquals(ParticipationRequestStatus.REJECTED, request2.getStatus());
+        ParticipationRequestDto rejected = result.getRejectedRequests().iterator().next();
+        assertEquals(2L, rejected.getId());
+        assertEquals(ParticipationRequestStatus.REJECTED, rejected.getStatus());
+        verify(eventRepository).shiftRequestCounters(1L, -2, 1, 0);
         assertEquals(10L, event.getConfirmedRequests());
     }
 
@@ -298,7 +454,7 @@ class ParticipationRequestServiceTest {
     void updateStatusWhenRequestNotFoundShouldThrowNotFoundException() {
         when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventId(1L)).thenReturn(List.of());
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of());
 
         assertThrows(NotFoundException.class,
                 () -> participationRequestService.updateStatus(2L, 1L, updateRequest));
@@ -309,7 +465,7 @@ class ParticipationRequestServiceTest {
         request.setStatus(ParticipationRequestStatus.CONFIRMED);
         when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventId(1L)).thenReturn(List.of(request));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
 
         assertThrows(ConditionsNotMetException.class,
                 () -> participationRequestService.updateStatus(2L, 1L, updateRequest));
@@ -320,7 +476,8 @@ class ParticipationRequestServiceTest {
         event.setConfirmedRequests(10L);
         when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventId(1L)).thenReturn(List.of(request));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
+        when(eventRepository.incrementConfirmedRequests(1L, 1L)).thenReturn(0);
 
         assertThrows(ConditionsNotMetException.class,
                 () -> participationRequestService.updateStatus(2L, 1L, updateRequest));
@@ -331,12 +488,18 @@ class ParticipationRequestServiceTest {
         updateRequest.setStatus(ParticipationRequestStatus.REJECTED);
         when(userRepository.findById(2L)).thenReturn(Optional.of(initiator));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
-        when(participationRequestRepository.findAllByEventId(1L)).thenReturn(List.of(request));
+        when(participationRequestRepository.findAllByEventIdAndIdIn(1L, Set.of(1L))).thenReturn(List.of(request));
+        when(participationRequestRepository.updatePendingStatus(1L, Set.of(1L), ParticipationRequestStatus.REJECTED))
+                .thenReturn(1);
 
         EventRequestStatusUpdateResult result = participationRequestService.updateStatus(2L, 1L, updateRequest);
 
         assertEquals(0, result.getConfirmedRequests().size());
         assertEquals(1, result.getRejectedRequests().size());
-        assertEquals(ParticipationRequestStatus.REJECTED, request.getStatus());
+        assertEquals(ParticipationRequestStatus.REJECTED, result.getRejectedRequests().iterator().next().getStatus());
+        assertEquals(5L, event.getConfirmedRequests());
+        verify(eventRepository, never()).incrementConfirmedRequests(any(), anyLong());
+        verify(eventRepository, never()).decrementConfirmedRequests(any(), anyLong());
+        verify(eventRepository).shiftRequestCounters(1L, -1, 1, 0);
     }
 }
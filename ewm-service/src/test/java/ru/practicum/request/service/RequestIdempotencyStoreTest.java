@@ -0,0 +1,105 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.request.model.ParticipationRequestDto;
+import ru.practicum.request.model.ParticipationRequestStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestIdempotencyStoreTest {
+
+    private final RequestIdempotencyStore store = new RequestIdempotencyStore(100, Duration.ofMinutes(10));
+
+    @Test
+    void executeWithSameKeyShouldReturnStoredResult() {
+        AtomicInteger calls = new AtomicInteger();
+
+        ParticipationRequestDto first = store.execute(1L, "key", 10L, () -> create(calls));
+        ParticipationRequestDto second = store.execute(1L, "key", 10L, () -> create(calls));
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void executeWithSameKeyOfAnotherUserShouldRunAction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute(1L, "key", 10L, () -> create(calls));
+        store.execute(2L, "key", 10L, () -> create(calls));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void executeWithSameKeyForAnotherEventShouldThrowConditionsNotMetException() {
+        AtomicInteger calls = new AtomicInteger();
+        store.execute(1L, "key", 10L, () -> create(calls));
+
+        assertThrows(ConditionsNotMetException.class,
+                () -> store.execute(1L, "key", 11L, () -> create(calls)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void executeAfterFailureShouldRunActionAgain() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(ConditionsNotMetException.class, () -> store.execute(1L, "key", 10L, () -> {
+            calls.incrementAndGet();
+            throw new ConditionsNotMetException("Достигнут лимит заявок на участие в событии");
+        }));
+        ParticipationRequestDto result = store.execute(1L, "key", 10L, () -> create(calls));
+
+        assertNotNull(result);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void concurrentDuplicateShouldWaitForFirstAttempt() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ParticipationRequestDto> first = CompletableFuture.supplyAsync(() ->
+                store.execute(1L, "key", 10L, () -> {
+                    started.countDown();
+                    await(release);
+                    return create(calls);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ParticipationRequestDto> duplicate = CompletableFuture.supplyAsync(() ->
+                store.execute(1L, "key", 10L, () -> create(calls)));
+
+        assertThrows(TimeoutException.class, () -> duplicate.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    private static ParticipationRequestDto create(AtomicInteger calls) {
+        return ParticipationRequestDto.builder()
+                .id((long) calls.incrementAndGet())
+                .event(10L)
+                .requester(1L)
+                .status(ParticipationRequestStatus.PENDING)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
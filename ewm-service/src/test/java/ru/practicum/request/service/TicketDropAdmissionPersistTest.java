@@ -0,0 +1,154 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.extention.ServiceUnavailableException;
+import ru.practicum.request.model.NewParticipationRequest;
+import ru.practicum.request.model.ParticipationRequestStatus;
+import ru.practicum.request.repository.ParticipationRequestRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+import ru.practicum.version.ResourceVersions;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TicketDropAdmissionPersistTest {
+    private static final long EVENT_ID = 1L;
+    private static final long PARTICIPANT_LIMIT = 50L;
+
+    @Mock
+    private ParticipationRequestRepository participationRequestRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TicketDropAdmission ticketDropAdmission;
+
+    @BeforeEach
+    void setUp() {
+        ticketDropAdmission = new TicketDropAdmission(participationRequestRepository, eventRepository,
+                new ParticipationRequestValidator(userRepository, eventRepository),
+                resourceVersions, transactionManager, true, 100, 10, 10, Duration.ofSeconds(5), false);
+    }
+
+    @Test
+    void persistWhenSeatsTakenBetweenRetriesShouldGrantOnlyReservedSeats() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        // Первый UPDATE не проходит, по остатку просим 2 места, но их снова успевают занять, остаётся 1
+        when(eventRepository.incrementConfirmedRequests(EVENT_ID, 3L)).thenReturn(0);
+        when(eventRepository.incrementConfirmedRequests(EVENT_ID, 2L)).thenReturn(0);
+        when(eventRepository.incrementConfirmedRequests(EVENT_ID, 1L)).thenReturn(1);
+        when(eventRepository.findConfirmedRequestsById(EVENT_ID)).thenReturn(48L, 49L);
+        when(participationRequestRepository.insertAbsent(eq(EVENT_ID), anyList())).thenReturn(Map.of(10L, 100L));
+        List<TicketDropAdmission.Admission> batch = List.of(admission(10L), admission(11L), admission(12L));
+
+        ticketDropAdmission.persist(new ArrayList<>(batch));
+
+        assertEquals(100L, batch.get(0).getResult().get().getId());
+        for (TicketDropAdmission.Admission rejected : batch.subList(1, 3)) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.getResult().get());
+            assertInstanceOf(ConditionsNotMetException.class, error.getCause());
+        }
+        verify(participationRequestRepository).insertAbsent(EVENT_ID, List.of(batch.get(0).getRequest()));
+        verify(eventRepository, never()).decrementConfirmedRequests(anyLong(), anyLong());
+    }
+
+    @Test
+    void persistWhenNoSeatsLeftShouldInsertNothing() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(eventRepository.incrementConfirmedRequests(EVENT_ID, 2L)).thenReturn(0);
+        when(eventRepository.findConfirmedRequestsById(EVENT_ID)).thenReturn(PARTICIPANT_LIMIT);
+        when(participationRequestRepository.insertAbsent(EVENT_ID, List.of())).thenReturn(Map.of());
+        List<TicketDropAdmission.Admission> batch = List.of(admission(10L), admission(11L));
+
+        ticketDropAdmission.persist(new ArrayList<>(batch));
+
+        for (TicketDropAdmission.Admission rejected : batch) {
+            ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.getResult().get());
+            assertInstanceOf(ConditionsNotMetException.class, error.getCause());
+        }
+        verify(eventRepository, times(1)).incrementConfirmedRequests(anyLong(), anyLong());
+    }
+
+    @Test
+    void persistWhenConfirmedRequestIsDuplicateShouldReturnItsSeat() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(eventRepository.findById(EVENT_ID)).thenReturn(Optional.of(event(PARTICIPANT_LIMIT - 1)));
+        when(eventRepository.incrementConfirmedRequests(EVENT_ID, 1L)).thenReturn(1);
+        when(participationRequestRepository.insertAbsent(eq(EVENT_ID), anyList())).thenReturn(Map.of(), Map.of(11L, 101L));
+        ticketDropAdmission.start();
+        try {
+            ConditionsNotMetException duplicate = assertThrows(ConditionsNotMetException.class,
+                    () -> ticketDropAdmission.create(10L, EVENT_ID));
+            assertTrue(duplicate.getMessage().contains("дублирующую"));
+
+            assertEquals(101L, ticketDropAdmission.create(11L, EVENT_ID).getId());
+        } finally {
+            ticketDropAdmission.stop();
+        }
+        verify(eventRepository).decrementConfirmedRequests(EVENT_ID, 1L);
+    }
+
+    @Test
+    void createAfterStopShouldBeRejected() {
+        ticketDropAdmission.start();
+        ticketDropAdmission.stop();
+
+        assertThrows(ServiceUnavailableException.class, () -> ticketDropAdmission.create(2L, EVENT_ID));
+        verifyNoInteractions(userRepository, eventRepository, participationRequestRepository);
+    }
+
+    private Event event(long confirmedRequests) {
+        User initiator = new User();
+        initiator.setId(1L);
+        Event event = new Event();
+        event.setId(EVENT_ID);
+        event.setInitiator(initiator);
+        event.setState(EventState.PUBLISHED);
+        event.setParticipantLimit(PARTICIPANT_LIMIT);
+        event.setConfirmedRequests(confirmedRequests);
+        event.setRequestModeration(false);
+        return event;
+    }
+
+    private TicketDropAdmission.Admission admission(Long requesterId) {
+        return new TicketDropAdmission.Admission(
+                new NewParticipationRequest(EVENT_ID, requesterId, ParticipationRequestStatus.CONFIRMED, LocalDateTime.now()),
+                PARTICIPANT_LIMIT,
+                new CompletableFuture<>());
+    }
+}
@@ -0,0 +1,243 @@
+package ru.practicum.request.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.EventState;
+import ru.practicum.event.repository.EventRepository;
+import ru.practicum.extention.ConditionsNotMetException;
+import ru.practicum.request.model.NewParticipationRequest;
+import ru.practicum.request.model.ParticipationRequestDto;
+import ru.practicum.request.model.ParticipationRequestStatus;
+import ru.practicum.request.repository.ParticipationRequestRepository;
+import ru.practicum.user.model.User;
+import ru.practicum.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "EWMServiceApp.ticket-drop.enabled=true")
+@ActiveProfiles("test")
+class TicketDropAdmissionTest {
+    private static final int PARTICIPANT_LIMIT = 50;
+    private static final int REQUESTERS = 300;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private TicketDropAdmission ticketDropAdmission;
+
+    @Autowired
+    private ParticipationRequestRepository participationRequestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User initiator;
+    private Category category;
+    private List<User> requesters;
+
+    @BeforeEach
+    void setUp() {
+        initiator = userRepository.save(User.builder().name("Initiator").email("initiator@ticket-drop.ru").build());
+        category = categoryRepository.save(Category.builder().name("Продажа билетов").build());
+        requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(User.builder().name("User " + i).email("user" + i + "@ticket-drop.ru").build());
+        }
+        requesters = userRepository.saveAll(requesters);
+    }
+
+    @AfterEach
+    void tearDown() {
+        participationRequestRepository.deleteAll();
+        eventRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void createInParallelShouldConfirmExactlyParticipantLimit() throws Exception {
+        Event event = createEvent(false);
+
+        AtomicInteger rejected = new AtomicInteger();
+        runInParallel(requesters, requester -> {
+            try {
+                ticketDropAdmission.create(requester.getId(), event.getId());
+            } catch (ConditionsNotMetException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(PARTICIPANT_LIMIT, eventRepository.findConfirmedRequestsById(event.getId()));
+        assertEquals(PARTICIPANT_LIMIT, participationRequestRepository.findAllByEventId(event.getId()).stream()
+                .filter(request -> request.getStatus() == ParticipationRequestStatus.CONFIRMED)
+                .count());
+        assertEquals(REQUESTERS - PARTICIPANT_LIMIT, rejected.get());
+    }
+
+    @Test
+    void duplicateCreateInParallelShouldSaveOneRequest() throws Exception {
+        Event event = createEvent(false);
+        User requester = requesters.getFirst();
+
+        AtomicInteger rejected = new AtomicInteger();
+        runInParallel(Collections.nCopies(THREADS, requester), user -> {
+            try {
+                ticketDropAdmission.create(user.getId(), event.getId());
+            } catch (ConditionsNotMetException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, participationRequestRepository.findAllByEventId(event.getId()).size());
+        assertEquals(1L, eventRepository.findConfirmedRequestsById(event.getId()));
+        assertEquals(THREADS - 1, rejected.get());
+    }
+
+    @Test
+    void createForModeratedEventShouldSavePendingRequest() {
+        Event event = createEvent(true);
+
+        ParticipationRequestDto request = ticketDropAdmission.create(requesters.getFirst().getId(), event.getId());
+
+        assertNotNull(request.getId());
+        assertEquals(ParticipationRequestStatus.PENDING, request.getStatus());
+        Event saved = eventRepository.findById(event.getId()).orElseThrow();
+        assertEquals(0L, saved.getConfirmedRequests());
+        assertEquals(1L, saved.getPendingRequests());
+    }
+
+    @Test
+    void createWhenSeatsTakenBypassingAdmissionShouldNotOverbook() {
+        Event event = createEvent(false);
+        ticketDropAdmission.create(requesters.get(0).getId(), event.getId());
+        // Места заняты в обход счётчика в памяти, например подтверждением заявок на модерации
+        jdbcTemplate.update("UPDATE events SET confirmed_requests = ? WHERE id = ?", PARTICIPANT_LIMIT - 1, event.getId());
+
+        ticketDropAdmission.create(requesters.get(1).getId(), event.getId());
+        assertThrows(ConditionsNotMetException.class,
+                () -> ticketDropAdmission.create(requesters.get(2).getId(), event.getId()));
+
+        assertEquals(PARTICIPANT_LIMIT, eventRepository.findConfirmedRequestsById(event.getId()));
+        assertEquals(2, participationRequestRepository.findAllByEventId(event.getId()).size());
+    }
+
+    @Test
+    void persistWhenRequestInsertedByUncommittedTransactionShouldFailOnlyThatRequest() throws Exception {
+        Event event = createEvent(false);
+        User conflicting = requesters.get(0);
+        User other = requesters.get(1);
+        CountDownLatch inserted = new CountDownLatch(1);
+        // Обычный путь создания заявок держит свою вставку незафиксированной, пока пачка пытается вставить ту же заявку
+        CompletableFuture<Void> concurrent = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO requests (event_id, requester_id, created, status) VALUES (?, ?, ?, ?)",
+                            event.getId(), conflicting.getId(), LocalDateTime.now(), "CONFIRMED");
+                    inserted.countDown();
+                    sleep(300);
+                }));
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+        TicketDropAdmission.Admission duplicate = admission(event, conflicting);
+        TicketDropAdmission.Admission accepted = admission(event, other);
+
+        ticketDropAdmission.persist(new ArrayList<>(List.of(duplicate, accepted)));
+        concurrent.get(10, TimeUnit.SECONDS);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> duplicate.getResult().get());
+        assertInstanceOf(ConditionsNotMetException.class, error.getCause());
+        assertEquals(other.getId(), accepted.getResult().get().getRequester());
+        assertEquals(1L, eventRepository.findConfirmedRequestsById(event.getId()));
+        assertEquals(2, participationRequestRepository.findAllByEventId(event.getId()).size());
+    }
+
+    private TicketDropAdmission.Admission admission(Event event, User requester) {
+        return new TicketDropAdmission.Admission(
+                new NewParticipationRequest(event.getId(), requester.getId(), ParticipationRequestStatus.CONFIRMED,
+                        LocalDateTime.now()),
+                event.getParticipantLimit(),
+                new CompletableFuture<>());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Event createEvent(boolean requestModeration) {
+        return eventRepository.save(Event.builder()
+                .title("Концерт")
+                .annotation("Аннотация концерта")
+                .description("Описание концерта")
+                .category(category)
+                .initiator(initiator)
+                .createdOn(LocalDateTime.now())
+                .eventDate(LocalDateTime.now().plusDays(7))
+                .lat(55.75)
+                .lon(37.62)
+                .paid(false)
+                .participantLimit((long) PARTICIPANT_LIMIT)
+                .confirmedRequests(0L)
+                .requestModeration(requestModeration)
+                .state(EventState.PUBLISHED)
+                .views(0L)
+                .build());
+    }
+
+    private void runInParallel(List<User> users, Consumer<User> action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (User user : users) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    action.accept(user);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package ru.practicum.stats;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.practicum.StatsClient;
+import ru.practicum.dto.EndpointHitDto;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HitBufferTest {
+
+    @Mock
+    private StatsClient statsClient;
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.ofDefaults("stats-service");
+
+    @Test
+    void addWhenDropPolicyAndBufferFullShouldDropNewHit() {
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 2, 10, 100, HitOverflowPolicy.DROP, 10, false);
+
+        assertTrue(buffer.add(hit("/events/1")));
+        assertTrue(buffer.add(hit("/events/2")));
+        assertFalse(buffer.add(hit("/events/3")));
+
+        assertEquals(2, buffer.size());
+        assertEquals(1, buffer.getDroppedCount());
+        assertEquals(2, buffer.getAcceptedCount());
+    }
+
+    @Test
+    void addWhenDropOldestPolicyAndBufferFullShouldKeepNewestHits() {
+        when(statsClient.saveAll(any())).thenReturn(ResponseEntity.ok().build());
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 2, 10, 100, HitOverflowPolicy.DROP_OLDEST, 10, false);
+
+        buffer.add(hit("/events/1"));
+        buffer.add(hit("/events/2"));
+        assertTrue(buffer.add(hit("/events/3")));
+        buffer.flush();
+
+        assertEquals(1, buffer.getDroppedCount());
+        verify(statsClient).saveAll(argThat(hits -> hits.size() == 2
+                && hits.get(0).getUri().equals("/events/2")
+                && hits.get(1).getUri().equals("/events/3")));
+    }
+
+    @Test
+    void addWhenBlockPolicyAndBufferFullShouldDropAfterTimeout() {
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 1, 10, 100, HitOverflowPolicy.BLOCK, 10, false);
+
+        assertTrue(buffer.add(hit("/events/1")));
+        assertFalse(buffer.add(hit("/events/2")));
+
+        assertEquals(1, buffer.getDroppedCount());
+    }
+
+    @Test
+    void flushWhenStatsUnavailableShouldKeepUndeliveredHitsInBuffer() {
+        when(statsClient.saveAll(any()))
+                .thenReturn(ResponseEntity.ok().build())
+                .thenThrow(new RuntimeException("Сервис статистики недоступен"));
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 10, 2, 100, HitOverflowPolicy.DROP, 10, false);
+
+        buffer.add(hit("/events/1"));
+        buffer.add(hit("/events/2"));
+        buffer.add(hit("/events/3"));
+        buffer.flush();
+
+        assertEquals(1, buffer.size());
+        assertEquals(2, buffer.getSentCount());
+        assertEquals(0, buffer.getFailedCount());
+        assertEquals(1, buffer.getRetriedCount());
+        assertEquals(0, buffer.getDroppedCount());
+        verify(statsClient, times(2)).saveAll(any());
+    }
+
+    @Test
+    void countersShouldReconcileAfterRetriedBatchIsDelivered() {
+        when(statsClient.saveAll(any()))
+                .thenReturn(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build())
+                .thenReturn(ResponseEntity.ok().build());
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 10, 10, 100, HitOverflowPolicy.DROP, 10, false);
+
+        buffer.add(hit("/events/1"));
+        buffer.add(hit("/events/2"));
+        buffer.flush();
+        buffer.flush();
+
+        assertEquals(0, buffer.size());
+        assertEquals(2, buffer.getRetriedCount());
+        assertEquals(buffer.getAcceptedCount(),
+                buffer.getSentCount() + buffer.getFailedCount() + buffer.getDroppedCount());
+    }
+
+    @Test
+    void flushWhenCircuitOpenShouldNotCallStatsAndKeepHits() {
+        circuitBreaker.transitionToOpenState();
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 10, 10, 100, HitOverflowPolicy.DROP, 10, false);
+
+        buffer.add(hit("/events/1"));
+        buffer.add(hit("/events/2"));
+        buffer.flush();
+
+        assertEquals(2, buffer.size());
+        verifyNoInteractions(statsClient);
+    }
+
+    @Test
+    void flushWhenStatsRejectsHitsShouldNotRetryThem() {
+        when(statsClient.saveAll(any())).thenReturn(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 10, 10, 100, HitOverflowPolicy.DROP, 10, false);
+
+        buffer.add(hit("/events/1"));
+        buffer.flush();
+
+        assertEquals(0, buffer.size());
+        assertEquals(1, buffer.getFailedCount());
+    }
+
+    @Test
+    void startShouldFlushHitsInBackground() {
+        when(statsClient.saveAll(any())).thenReturn(ResponseEntity.ok().build());
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 10, 10, 20, HitOverflowPolicy.DROP, 10, false);
+        buffer.start();
+        try {
+            buffer.add(hit("/events/1"));
+
+            verify(statsClient, timeout(1000)).saveAll(any());
+        } finally {
+            buffer.stop();
+        }
+    }
+
+    @Test
+    void startWithVirtualThreadsShouldFlushHitsInBackground() {
+        when(statsClient.saveAll(any())).thenReturn(ResponseEntity.ok().build());
+        HitBuffer buffer = new HitBuffer(statsClient, circuitBreaker, 10, 10, 20, HitOverflowPolicy.DROP, 10, true);
+        buffer.start();
+        try {
+            buffer.add(hit("/events/1"));
+
+            verify(statsClient, timeout(1000)).saveAll(any());
+        } finally {
+            buffer.stop();
+        }
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("ewm-service")
+                .uri(uri)
+                .ip("127.0.0.1")
+                .timestamp("2024-01-01 00:00:00")
+                .build();
+    }
+}
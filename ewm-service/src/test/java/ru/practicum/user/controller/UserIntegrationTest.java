@@ -9,7 +9,9 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.pagination.PageCursor;
 import ru.practicum.user.model.User;
 import ru.practicum.user.model.UserDto;
 import ru.practicum.user.repository.UserRepository;
@@ -96,6 +98,41 @@ class UserIntegrationTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    void getAllUsersWithCursorShouldWalkThroughPages() throws Exception {
+        var first = userRepository.save(createTestUser("first@example.com"));
+        var second = userRepository.save(createTestUser("second@example.com"));
+        var third = userRepository.save(createTestUser("third@example.com"));
+
+        MvcResult firstPage = mockMvc.perform(get("/admin/users").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(first.getId()))
+                .andExpect(jsonPath("$[1].id").value(second.getId()))
+                .andExpect(header().exists(PageCursor.NEXT_CURSOR_HEADER))
+                .andReturn();
+
+        mockMvc.perform(get("/admin/users")
+                        .param("size", "2")
+                        .param("after", firstPage.getResponse().getHeader(PageCursor.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(third.getId()))
+                .andExpect(header().doesNotExist(PageCursor.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllUsersWithInvalidCursorShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/admin/users").param("after", "не-курсор"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private User createTestUser(String email) {
+        User user = createTestUser();
+        user.setEmail(email);
+        return user;
+    }
+
     private User createTestUser() {
         User user = new User();
         user.setName("Test User");
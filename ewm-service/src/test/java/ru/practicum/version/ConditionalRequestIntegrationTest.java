@@ -0,0 +1,98 @@
+package ru.practicum.version;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.compilation.service.CompilationService;
+import ru.practicum.event.model.EventDto;
+import ru.practicum.event.service.EventService;
+import ru.practicum.extention.NotFoundException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalRequestIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @MockBean
+    private CompilationService compilationService;
+
+    @MockBean
+    private EventService eventService;
+
+    @Test
+    void getCompilationsWithCurrentEtagShouldReturnNotModifiedWithoutServiceCall() throws Exception {
+        when(compilationService.findAll(any(), any(), any())).thenReturn(List.of());
+
+        MockHttpServletResponse response = mockMvc.perform(get("/compilations"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        mockMvc.perform(get("/compilations").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, etag));
+        verify(compilationService, times(1)).findAll(any(), any(), any());
+
+        mockMvc.perform(get("/compilations").header(HttpHeaders.IF_MODIFIED_SINCE, "Sat, 17 Oct 2099 00:00:00 GMT"))
+                .andExpect(status().isOk());
+        verify(compilationService, times(2)).findAll(any(), any(), any());
+
+        resourceVersions.touch(ResourceVersions.COMPILATIONS);
+
+        mockMvc.perform(get("/compilations").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+        verify(compilationService, times(3)).findAll(any(), any(), any());
+    }
+
+    @Test
+    void getMissingCompilationWithCurrentEtagShouldReturnNotFound() throws Exception {
+        when(compilationService.findById(999999L)).thenThrow(new NotFoundException("Подборка с id=999999 не найдена"));
+        String etag = resourceVersions.etag(ResourceVersions.COMPILATIONS);
+
+        mockMvc.perform(get("/compilations/999999").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getEventWithCurrentEtagShouldReturnNotModifiedWithoutLoadingEvent() throws Exception {
+        when(eventService.getEventEtag(1L)).thenReturn("\"v1-42\"");
+        when(eventService.findById(1L)).thenReturn(EventDto.builder().id(1L).views(42L).build());
+
+        mockMvc.perform(get("/events/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"v1-42\""));
+
+        mockMvc.perform(get("/events/1").header(HttpHeaders.IF_NONE_MATCH, "\"v1-42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.ETAG, "\"v1-42\""));
+        verify(eventService, times(1)).findById(1L);
+
+        mockMvc.perform(get("/events/1").header(HttpHeaders.IF_NONE_MATCH, "\"v0-41\""))
+                .andExpect(status().isOk());
+        verify(eventService, times(2)).findById(1L);
+    }
+}
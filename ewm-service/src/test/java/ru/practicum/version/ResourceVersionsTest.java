@@ -0,0 +1,47 @@
+package ru.practicum.version;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionsTest {
+    private final ResourceVersions versions = new ResourceVersions();
+
+    @Test
+    void touchShouldChangeEtagOnlyForTouchedResource() {
+        String event = versions.etag(ResourceVersions.event(1L));
+        String compilations = versions.etag(ResourceVersions.COMPILATIONS);
+
+        versions.touch(ResourceVersions.event(1L));
+
+        assertNotEquals(event, versions.etag(ResourceVersions.event(1L)));
+        assertEquals(compilations, versions.etag(ResourceVersions.COMPILATIONS));
+        assertNotEquals(versions.etag(ResourceVersions.event(1L), 5L), versions.etag(ResourceVersions.event(1L), 6L));
+    }
+
+    @Test
+    void touchInsideTransactionShouldApplyAfterCommit() {
+        String before = versions.etag(ResourceVersions.COMPILATIONS);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            versions.touch(ResourceVersions.COMPILATIONS);
+            assertEquals(before, versions.etag(ResourceVersions.COMPILATIONS));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotEquals(before, versions.etag(ResourceVersions.COMPILATIONS));
+    }
+
+    @Test
+    void matchesShouldAcceptListsWeakTagsAndWildcard() {
+        assertTrue(ResourceVersions.matches("\"a\", W/\"b\"", "\"b\""));
+        assertTrue(ResourceVersions.matches("*", "\"b\""));
+        assertFalse(ResourceVersions.matches("\"a\"", "\"b\""));
+        assertFalse(ResourceVersions.matches(null, "\"b\""));
+    }
+}
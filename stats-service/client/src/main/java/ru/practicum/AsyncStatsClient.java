@@ -0,0 +1,119 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class AsyncStatsClient {
+    private static final TypeReference<List<StatsDto>> STATS_LIST = new TypeReference<>() {
+    };
+
+    private final String serverUrl;
+    private final CloseableHttpAsyncClient httpClient;
+    private final ObjectMapper mapper;
+    private final ObjectReader statsReader;
+
+    public AsyncStatsClient(String serverUrl, CloseableHttpAsyncClient httpClient, ObjectMapper mapper) {
+        this.serverUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+        this.httpClient = httpClient;
+        this.mapper = mapper;
+        this.statsReader = mapper.readerFor(STATS_LIST);
+    }
+
+    public CompletableFuture<List<StatsDto>> getStats(String start, String end, List<String> uris, Boolean unique) {
+        String query = "start=" + encode(start)
+                + "&end=" + encode(end)
+                + "&uris=" + encode(String.join(",", uris))
+                + "&unique=" + unique;
+        SimpleHttpRequest request = SimpleRequestBuilder.get(serverUrl + "/stats?" + query)
+                .addHeader("Accept", "application/json")
+                .build();
+        return execute(request)
+                .thenApply(response -> read(checkStatus(request, response).getBodyBytes()));
+    }
+
+    public CompletableFuture<Void> save(EndpointHitDto endpointHit) {
+        return post("/hit", endpointHit);
+    }
+
+    public CompletableFuture<Void> saveAll(List<EndpointHitDto> endpointHits) {
+        return post("/hits/batch", endpointHits);
+    }
+
+    private CompletableFuture<Void> post(String path, Object body) {
+        SimpleHttpRequest request = SimpleRequestBuilder.post(serverUrl + path)
+                .addHeader("Accept", "application/json")
+                .setBody(write(body), ContentType.APPLICATION_JSON)
+                .build();
+        return execute(request)
+                .thenAccept(response -> checkStatus(request, response));
+    }
+
+    private CompletableFuture<SimpleHttpResponse> execute(SimpleHttpRequest request) {
+        CompletableFuture<SimpleHttpResponse> result = new CompletableFuture<>();
+        httpClient.execute(request, new FutureCallback<>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                result.complete(response);
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private SimpleHttpResponse checkStatus(SimpleHttpRequest request, SimpleHttpResponse response) {
+        if (response.getCode() < 200 || response.getCode() >= 300) {
+            throw new StatsClientException(response.getCode(),
+                    "Сервис статистики вернул статус " + response.getCode() + " на " + request.getPath());
+        }
+        return response;
+    }
+
+    List<StatsDto> read(byte[] body) {
+        if (body == null || body.length == 0) {
+            return List.of();
+        }
+        try {
+            return statsReader.readValue(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] write(Object body) {
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum;
 
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
@@ -19,6 +20,16 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.GET, path, parameters, null);
     }
 
+    // Тело ответа читается конвертером RestTemplate сразу в нужный тип, без промежуточных Map
+    protected <R> ResponseEntity<R> get(String path, Map<String, Object> parameters, ParameterizedTypeReference<R> responseType) {
+        HttpEntity<Void> requestEntity = new HttpEntity<>(null, defaultHeaders());
+        try {
+            return rest.exchange(path, HttpMethod.GET, requestEntity, responseType, parameters);
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode()).build();
+        }
+    }
+
     protected <T> ResponseEntity<Object> post(String path, T body) {
         return makeAndSendRequest(HttpMethod.POST, path, null, body);
     }
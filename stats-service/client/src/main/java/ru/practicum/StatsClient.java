@@ -1,15 +1,15 @@
 package ru.practicum;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.StatsDto;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.util.Collections;
 import java.util.List;
@@ -17,10 +17,16 @@ import java.util.Map;
 
 @Component
 public class StatsClient extends BaseClient {
+    private static final ParameterizedTypeReference<List<StatsDto>> STATS_LIST = new ParameterizedTypeReference<>() {
+    };
 
     public StatsClient(@Value("${stats-service.url}") String serverUrl, RestTemplateBuilder builder) {
+        this(serverUrl, builder, new HttpComponentsClientHttpRequestFactory());
+    }
+
+    public StatsClient(String serverUrl, RestTemplateBuilder builder, ClientHttpRequestFactory requestFactory) {
         super(builder.uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl))
-                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory()).build());
+                .requestFactory(() -> requestFactory).build());
     }
 
     public List<StatsDto> getStats(String start, String end, List<String> uris, Boolean unique) {
@@ -31,12 +37,10 @@ public class StatsClient extends BaseClient {
                 "uris", urisParam,
                 "unique", unique
         );
-        ResponseEntity<Object> response = get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
+        ResponseEntity<List<StatsDto>> response = get("/stats?start={start}&end={end}&uris={uris}&unique={unique}",
+                parameters, STATS_LIST);
         if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.convertValue(response.getBody(),
-                    new TypeReference<List<StatsDto>>() {
-                    });
+            return response.getBody();
         }
         return Collections.emptyList();
     }
@@ -45,6 +49,10 @@ public class StatsClient extends BaseClient {
         return post("/hit", endpointHit);
     }
 
+    public ResponseEntity<Object> saveAll(List<EndpointHitDto> endpointHits) {
+        return post("/hits/batch", endpointHits);
+    }
+
 }
 
 
@@ -0,0 +1,17 @@
+package ru.practicum;
+
+import lombok.Getter;
+
+@Getter
+public class StatsClientException extends RuntimeException {
+    private final int statusCode;
+
+    public StatsClientException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public boolean isServerError() {
+        return statusCode >= 500;
+    }
+}
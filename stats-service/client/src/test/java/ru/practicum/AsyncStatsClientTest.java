@@ -0,0 +1,98 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsDto;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncStatsClientTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final AtomicReference<String> lastQuery = new AtomicReference<>();
+    private final AtomicReference<String> lastBody = new AtomicReference<>();
+    private final AtomicInteger status = new AtomicInteger(200);
+
+    private HttpServer server;
+    private CloseableHttpAsyncClient httpClient;
+    private AsyncStatsClient statsClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/stats", exchange -> {
+            lastQuery.set(URLDecoder.decode(exchange.getRequestURI().getRawQuery(), StandardCharsets.UTF_8));
+            byte[] body = mapper.writeValueAsBytes(List.of(new StatsDto("ewm-service", "/events/1", 3L)));
+            exchange.sendResponseHeaders(status.get(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/hits/batch", exchange -> {
+            lastBody.set(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(status.get(), -1);
+            exchange.close();
+        });
+        server.start();
+
+        httpClient = HttpAsyncClients.createDefault();
+        httpClient.start();
+        statsClient = new AsyncStatsClient("http://localhost:" + server.getAddress().getPort() + "/",
+                httpClient, mapper);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void getStatsShouldReturnTypedStats() {
+        List<StatsDto> stats = statsClient.getStats("2024-01-01 00:00:00", "2024-01-02 00:00:00",
+                List.of("/events/1", "/events/2"), true).join();
+
+        assertEquals(List.of(new StatsDto("ewm-service", "/events/1", 3L)), stats);
+        assertEquals("start=2024-01-01 00:00:00&end=2024-01-02 00:00:00&uris=/events/1,/events/2&unique=true",
+                lastQuery.get());
+    }
+
+    @Test
+    void getStatsWhenServerFailsShouldCompleteExceptionally() {
+        status.set(503);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> statsClient.getStats(
+                "2024-01-01 00:00:00", "2024-01-02 00:00:00", List.of("/events/1"), false).join());
+
+        StatsClientException cause = assertInstanceOf(StatsClientException.class, e.getCause());
+        assertEquals(503, cause.getStatusCode());
+        assertTrue(cause.isServerError());
+    }
+
+    @Test
+    void saveAllShouldPostHitsAsJson() throws IOException {
+        EndpointHitDto hit = EndpointHitDto.builder()
+                .app("ewm-service")
+                .uri("/events/1")
+                .ip("127.0.0.1")
+                .timestamp("2024-01-01 00:00:00")
+                .build();
+
+        statsClient.saveAll(List.of(hit)).join();
+
+        assertEquals(List.of(hit), List.of(mapper.readValue(lastBody.get(), EndpointHitDto[].class)));
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
@@ -69,6 +70,31 @@ class StatsClientTest {
                 eq(Object.class));
     }
 
+    @Test
+    void saveAllShouldPostHitsToBatchEndpoint() {
+        EndpointHitDto hitDto = new EndpointHitDto();
+        hitDto.setApp("test-app");
+        hitDto.setUri("/test");
+        hitDto.setIp("127.0.0.1");
+        hitDto.setTimestamp(SimpleDateTimeFormatter.toString(LocalDateTime.now()));
+
+        when(restTemplate.exchange(
+                eq("/hits/batch"),
+                eq(HttpMethod.POST),
+                argThat(this::checkHeaders),
+                eq(Object.class))
+        ).thenReturn(ResponseEntity.status(HttpStatus.CREATED).build());
+
+        ResponseEntity<Object> actualResponse = statsClient.saveAll(List.of(hitDto, hitDto));
+
+        assertEquals(HttpStatus.CREATED, actualResponse.getStatusCode());
+        verify(restTemplate).exchange(
+                eq("/hits/batch"),
+                eq(HttpMethod.POST),
+                argThat(entity -> entity.getBody() instanceof List<?> body && body.size() == 2),
+                eq(Object.class));
+    }
+
     @Test
     void getStatsShouldCallGetRequestWithParameters() {
         String start = "2023-01-01 00:00:00";
@@ -76,23 +102,23 @@ class StatsClientTest {
         List<String> uris = List.of("/test1", "/test2");
         Boolean unique = true;
 
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok().build();
+        ResponseEntity<List<StatsDto>> expectedResponse = ResponseEntity.ok(List.of(new StatsDto("test-app", "/test1", 3L)));
         when(restTemplate.exchange(
                 anyString(),
                 eq(HttpMethod.GET),
                 argThat(this::checkHeaders),
-                eq(Object.class),
+                any(ParameterizedTypeReference.class),
                 eq(Map.of("start", start, "end", end, "uris", String.join(",", List.of("/test1", "/test2")), "unique", unique)))
         ).thenReturn(expectedResponse);
 
         List<StatsDto> actualResponse = statsClient.getStats(start, end, uris, unique);
 
-        assertNotNull(actualResponse);
+        assertEquals(expectedResponse.getBody(), actualResponse);
         verify(restTemplate, times(1)).exchange(
                 anyString(),
                 eq(HttpMethod.GET),
                 argThat(this::checkHeaders),
-                eq(Object.class),
+                any(ParameterizedTypeReference.class),
                 eq(Map.of("start", start, "end", end, "uris", String.join(",", List.of("/test1", "/test2")), "unique", unique)));
     }
 
@@ -103,12 +129,12 @@ class StatsClientTest {
         List<String> uris = List.of();
         Boolean unique = false;
 
-        ResponseEntity<Object> expectedResponse = ResponseEntity.ok().build();
+        ResponseEntity<List<StatsDto>> expectedResponse = ResponseEntity.ok(List.of(new StatsDto("test-app", "/test1", 3L)));
         when(restTemplate.exchange(
                 anyString(),
                 eq(HttpMethod.GET),
                 argThat(this::checkHeaders),
-                eq(Object.class),
+                any(ParameterizedTypeReference.class),
                 eq(Map.of("start", start, "end", end, "uris", String.join(",", List.of()), "unique", unique)))
         ).thenReturn(expectedResponse);
 
@@ -119,7 +145,7 @@ class StatsClientTest {
                 anyString(),
                 eq(HttpMethod.GET),
                 argThat(this::checkHeaders),
-                eq(Object.class),
+                any(ParameterizedTypeReference.class),
                 eq(Map.of("start", start, "end", end, "uris", String.join(",", List.of()), "unique", unique)));
     }
 
@@ -132,13 +158,12 @@ class StatsClientTest {
 
         HttpStatusCodeException exception = mock(HttpStatusCodeException.class);
         when(exception.getStatusCode()).thenReturn(HttpStatus.INTERNAL_SERVER_ERROR);
-        when(exception.getResponseBodyAsByteArray()).thenReturn("Server error".getBytes());
 
         when(restTemplate.exchange(
                 anyString(),
                 eq(HttpMethod.GET),
                 argThat(this::checkHeaders),
-                eq(Object.class),
+                any(ParameterizedTypeReference.class),
                 eq(Map.of("start", start, "end", end, "uris", String.join(",", List.of("/test")), "unique", unique)))
         ).thenThrow(exception);
 
@@ -0,0 +1,72 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import ru.practicum.dto.StatsDto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// mvn exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath ru.practicum.StatsDecodeBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatsDecodeBenchmark {
+    private static final TypeReference<List<StatsDto>> STATS_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1000", "10000"})
+    private int entries;
+
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+    private final AsyncStatsClient statsClient = new AsyncStatsClient("http://localhost:9090", null, sharedMapper);
+    private byte[] body;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<StatsDto> stats = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            stats.add(new StatsDto("ewm-main-service", "/events/" + i, (long) i));
+        }
+        body = sharedMapper.writeValueAsBytes(stats);
+    }
+
+    @Benchmark
+    public List<StatsDto> untypedThenConvert() throws IOException {
+        Object untyped = sharedMapper.readValue(body, Object.class);
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.convertValue(untyped, STATS_LIST);
+    }
+
+    @Benchmark
+    public List<StatsDto> asyncClientRead() {
+        return statsClient.read(body);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(StatsDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+// Пишет в лог и в jvm.threads.virtual.pinned события JFR о закреплении виртуального потока.
+// Общий для ewm-service и сервера статистики, каждый регистрирует его со своим префиксом настроек
+@Slf4j
+public class PinnedThreadsMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final int stackDepth;
+    private RecordingStream stream;
+
+    public PinnedThreadsMonitor(MeterRegistry meterRegistry, Environment environment, String prefix) {
+        this(meterRegistry,
+                DurationStyle.detectAndParse(environment.getProperty(prefix + ".pinned-threshold", "20ms")),
+                environment.getProperty(prefix + ".pinned-stack-depth", Integer.class, 10));
+    }
+
+    public PinnedThreadsMonitor(MeterRegistry meterRegistry, Duration threshold, int stackDepth) {
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Блокировки виртуальных потоков с закреплением за несущим потоком")
+                .register(meterRegistry);
+        this.threshold = threshold;
+        this.stackDepth = stackDepth;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        log.warn("Виртуальный поток {} закреплен за несущим потоком на {} мс:\n{}",
+                event.getThread() != null ? event.getThread().getJavaName() : "?",
+                event.getDuration().toMillis(),
+                formatStack(event));
+    }
+
+    private String formatStack(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "\tстек недоступен";
+        }
+        return event.getStackTrace().getFrames().stream()
+                .limit(stackDepth)
+                .map(PinnedThreadsMonitor::formatFrame)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String formatFrame(RecordedFrame frame) {
+        return "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.diagnostics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinnedThreadsMonitorTest {
+    private final Object lock = new Object();
+
+    @Test
+    void monitorShouldRecordVirtualThreadBlockedInsideSynchronized() throws InterruptedException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.virtual-threads.pinned-threshold", "10ms")
+                .withProperty("app.virtual-threads.pinned-stack-depth", "5");
+        PinnedThreadsMonitor monitor = new PinnedThreadsMonitor(registry, environment, "app.virtual-threads");
+        monitor.start();
+        try {
+            Thread.ofVirtual().start(() -> {
+                synchronized (lock) {
+                    sleep(50);
+                }
+            }).join();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (pinnedCount(registry) == 0 && System.currentTimeMillis() < deadline) {
+                sleep(100);
+            }
+            assertEquals(1, pinnedCount(registry));
+        } finally {
+            monitor.stop();
+        }
+    }
+
+    private long pinnedCount(MeterRegistry registry) {
+        return registry.get("jvm.threads.virtual.pinned").timer().count();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,19 +1,28 @@
 package ru.practicum.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import ru.practicum.service.StatsService;
 import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.HitsBatchResultDto;
 import ru.practicum.utils.SimpleDateTimeFormatter;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -22,17 +31,55 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StatsController {
     private final StatsService statsService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/hit")
     public ResponseEntity<EndpointHitDto> hit(@RequestBody EndpointHitDto endpointHitDto) {
         return new ResponseEntity<>(statsService.hit(endpointHitDto), HttpStatus.CREATED);
     }
 
-    @GetMapping("/stats")
+    @PostMapping(value = "/hits/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<HitsBatchResultDto> hitBatch(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        return new ResponseEntity<>(new HitsBatchResultDto(statsService.hitBatch(endpointHitDtos)), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/hits/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<HitsBatchResultDto> hitStream(HttpServletRequest request) throws IOException {
+        return new ResponseEntity<>(new HitsBatchResultDto(statsService.hitStream(request.getInputStream())), HttpStatus.CREATED);
+    }
+
+    @GetMapping(value = "/stats", params = "stream!=true", produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<Object> getStats(@RequestParam(required = false) @DateTimeFormat(pattern = SimpleDateTimeFormatter.PATTERN) LocalDateTime start,
                                            @RequestParam(required = false) @DateTimeFormat(pattern = SimpleDateTimeFormatter.PATTERN) LocalDateTime end,
                                            @RequestParam(required = false) List<String> uris,
-                                           @RequestParam(defaultValue = "false") Boolean unique) {
-        return ResponseEntity.ok(statsService.getStats(start, end, uris, unique));
+                                           @RequestParam(defaultValue = "false") Boolean unique,
+                                           @RequestParam(defaultValue = "false") Boolean approximate,
+                                           @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(statsService.getStats(start, end, uris, unique, approximate, limit));
+    }
+
+    @GetMapping("/stats")
+    public void streamStats(@RequestParam(required = false) @DateTimeFormat(pattern = SimpleDateTimeFormatter.PATTERN) LocalDateTime start,
+                            @RequestParam(required = false) @DateTimeFormat(pattern = SimpleDateTimeFormatter.PATTERN) LocalDateTime end,
+                            @RequestParam(required = false) List<String> uris,
+                            @RequestParam(defaultValue = "false") Boolean unique,
+                            @RequestParam(defaultValue = "false") Boolean approximate,
+                            @RequestParam(required = false) Integer limit,
+                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                            HttpServletResponse response) throws IOException {
+        StatsStreamWriter writer = new StatsStreamWriter(objectMapper, response, prefersNdjson(accept));
+        statsService.streamStats(start, end, uris, unique, approximate, limit, writer);
+        writer.finish();
+    }
+
+    private static boolean prefersNdjson(String accept) {
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        return mediaTypes.stream()
+                .filter(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                        || mediaType.isCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .findFirst()
+                .map(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)
+                .orElse(false);
     }
 }
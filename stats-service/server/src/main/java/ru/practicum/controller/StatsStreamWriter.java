@@ -0,0 +1,57 @@
+package ru.practicum.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import ru.practicum.dto.StatsDto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+// Ответ открывается при первой записи, чтобы ошибка проверки параметров еще могла стать ответом 400
+class StatsStreamWriter implements Consumer<StatsDto> {
+    private final ObjectMapper objectMapper;
+    private final HttpServletResponse response;
+    private final boolean ndjson;
+    private JsonGenerator generator;
+
+    StatsStreamWriter(ObjectMapper objectMapper, HttpServletResponse response, boolean ndjson) {
+        this.objectMapper = objectMapper;
+        this.response = response;
+        this.ndjson = ndjson;
+    }
+
+    @Override
+    public void accept(StatsDto stats) {
+        try {
+            open().writeObject(stats);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void finish() throws IOException {
+        open();
+        if (!ndjson) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+
+    private JsonGenerator open() throws IOException {
+        if (generator == null) {
+            response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            generator = objectMapper.getFactory().createGenerator(response.getOutputStream());
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+        }
+        return generator;
+    }
+}
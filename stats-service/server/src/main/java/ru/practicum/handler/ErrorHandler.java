@@ -1,25 +1,40 @@
 package ru.practicum.handler;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.format.DateTimeParseException;
+
 @RestControllerAdvice
 public class ErrorHandler {
 
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ErrorResponse handleNotFound(final IllegalArgumentException e) {
-        return new ErrorResponse(e.getMessage());
+    public ResponseEntity<ErrorResponse> handleNotFound(final IllegalArgumentException e) {
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler({JsonProcessingException.class, DateTimeParseException.class})
+    public ResponseEntity<ErrorResponse> handleNotReadable(final Exception e) {
+        return error(HttpStatus.BAD_REQUEST, "Некорректно составлен запрос: " + e.getMessage());
     }
 
     @ExceptionHandler
-    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ErrorResponse handleGeneric(final Throwable e) {
+    public ResponseEntity<ErrorResponse> handleGeneric(final Throwable e) {
         if (e.getMessage() != null && !e.getMessage().isEmpty()) {
-            return new ErrorResponse(e.getMessage());
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
         }
-        return new ErrorResponse("Произошла непредвиденная ошибка.");
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Произошла непредвиденная ошибка.");
+    }
+
+    // Ошибка всегда отдается в JSON: клиент потоковой выгрузки присылает Accept: application/x-ndjson,
+    // и без явного типа согласование формата для ErrorResponse закончилось бы 406
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(new ErrorResponse(message));
     }
-}
\ No newline at end of file
+}
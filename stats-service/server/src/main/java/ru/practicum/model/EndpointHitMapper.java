@@ -13,7 +13,9 @@ public class EndpointHitMapper {
                 .app(endpointHitDto.getApp())
                 .uri(endpointHitDto.getUri())
                 .ip(endpointHitDto.getIp())
-                .timestamp(LocalDateTime.now())
+                .timestamp(endpointHitDto.getTimestamp() != null
+                        ? SimpleDateTimeFormatter.parse(endpointHitDto.getTimestamp())
+                        : LocalDateTime.now())
                 .build();
     }
 
@@ -0,0 +1,11 @@
+package ru.practicum.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class RollupState {
+    private final long lastHitId;
+    private final long pendingHitId;
+}
@@ -0,0 +1,21 @@
+package ru.practicum.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class StatsQueryPlan {
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final LocalDateTime coveredFrom;
+    private final LocalDateTime coveredTo;
+    private final List<RollupRange> ranges;
+
+    public boolean hasRollups() {
+        return !ranges.isEmpty();
+    }
+}
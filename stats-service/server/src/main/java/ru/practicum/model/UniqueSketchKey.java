@@ -0,0 +1,17 @@
+package ru.practicum.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+@EqualsAndHashCode
+public class UniqueSketchKey {
+    private final RollupGranularity granularity;
+    private final LocalDateTime bucketStart;
+    private final String app;
+    private final String uri;
+}
@@ -0,0 +1,9 @@
+package ru.practicum.repository;
+
+import ru.practicum.model.EndpointHit;
+
+import java.util.List;
+
+public interface HitBatchRepository {
+    int insertBatch(List<EndpointHit> hits);
+}
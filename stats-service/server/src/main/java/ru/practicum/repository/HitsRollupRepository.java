@@ -0,0 +1,163 @@
+package ru.practicum.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupRange;
+import ru.practicum.model.RollupState;
+import ru.practicum.model.Stats;
+import ru.practicum.model.StatsQueryPlan;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public class HitsRollupRepository {
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String LOCK_STATE = """
+            SELECT last_hit_id, pending_hit_id
+            FROM hits_rollup_state
+            WHERE id = 1
+            FOR UPDATE
+            """;
+
+    private static final String UPDATE_STATE = """
+            UPDATE hits_rollup_state
+            SET last_hit_id = :lastHitId, pending_hit_id = :pendingHitId
+            WHERE id = 1
+            """;
+
+    private static final String WATERMARK = "SELECT last_hit_id FROM hits_rollup_state WHERE id = 1";
+
+    private static final String MAX_HIT_ID = "SELECT COALESCE(MAX(id), 0) FROM hits";
+
+    private static final String MERGE_ROLLUP = """
+            MERGE INTO hits_rollup r
+            USING (
+                SELECT h.app AS app, h.uri AS uri, DATE_TRUNC('%1$s', h.timestamp) AS bucket_start, COUNT(*) AS hits
+                FROM hits h
+                WHERE h.id > :fromId AND h.id <= :toId
+                GROUP BY h.app, h.uri, DATE_TRUNC('%1$s', h.timestamp)
+            ) s
+            ON (r.granularity = '%2$s' AND r.uri = s.uri AND r.app = s.app AND r.bucket_start = s.bucket_start)
+            WHEN MATCHED THEN
+                UPDATE SET hits = r.hits + s.hits
+            WHEN NOT MATCHED THEN
+                INSERT (granularity, bucket_start, app, uri, hits)
+                VALUES ('%2$s', s.bucket_start, s.app, s.uri, s.hits)
+            """;
+
+    private static final RowMapper<Stats> STATS_ROW_MAPPER = (rs, rowNum) -> Stats.builder()
+            .app(rs.getString("app"))
+            .uri(rs.getString("uri"))
+            .hits(rs.getLong("hits"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate streamingJdbcTemplate;
+
+    public HitsRollupRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        streaming.setFetchSize(STREAM_FETCH_SIZE);
+        this.streamingJdbcTemplate = new NamedParameterJdbcTemplate(streaming);
+    }
+
+    public RollupState lockState() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(LOCK_STATE,
+                (rs, rowNum) -> new RollupState(rs.getLong("last_hit_id"), rs.getLong("pending_hit_id")));
+    }
+
+    public void updateState(long lastHitId, long pendingHitId) {
+        jdbcTemplate.update(UPDATE_STATE, new MapSqlParameterSource()
+                .addValue("lastHitId", lastHitId)
+                .addValue("pendingHitId", pendingHitId));
+    }
+
+    public long findWatermark() {
+        Long watermark = jdbcTemplate.getJdbcTemplate().queryForObject(WATERMARK, Long.class);
+        return watermark == null ? 0 : watermark;
+    }
+
+    public long findMaxHitId() {
+        Long maxId = jdbcTemplate.getJdbcTemplate().queryForObject(MAX_HIT_ID, Long.class);
+        return maxId == null ? 0 : maxId;
+    }
+
+    public void rollup(long fromId, long toId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("fromId", fromId)
+                .addValue("toId", toId);
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update(MERGE_ROLLUP.formatted(granularity.name().toLowerCase(), granularity.name()), params);
+        }
+    }
+
+    // Агрегаты и сырые строки читаются одним запросом, чтобы водяной знак
+    // и содержимое hits_rollup брались из одного снимка данных
+    public List<Stats> findStats(StatsQueryPlan plan, List<String> uris, Integer limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return jdbcTemplate.query(statsQuery(plan, uris, limit, params), params, STATS_ROW_MAPPER);
+    }
+
+    // Строки читаются курсором по STREAM_FETCH_SIZE; поток нужно закрыть внутри транзакции
+    public Stream<Stats> streamStats(StatsQueryPlan plan, List<String> uris, Integer limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        return streamingJdbcTemplate.queryForStream(statsQuery(plan, uris, limit, params), params, STATS_ROW_MAPPER);
+    }
+
+    private String statsQuery(StatsQueryPlan plan, List<String> uris, Integer limit, MapSqlParameterSource params) {
+        params.addValue("start", plan.getStart())
+                .addValue("end", plan.getEnd())
+                .addValue("coveredFrom", plan.getCoveredFrom())
+                .addValue("coveredTo", plan.getCoveredTo());
+        String uriFilter = "";
+        if (uris != null) {
+            params.addValue("uris", uris);
+            uriFilter = " AND uri IN (:uris)";
+        }
+
+        String limitClause = "";
+        if (limit != null) {
+            params.addValue("limit", limit);
+            limitClause = "\nLIMIT :limit";
+        }
+
+        return """
+                SELECT app, uri, SUM(hits) AS hits
+                FROM (
+                    SELECT app, uri, hits
+                    FROM hits_rollup
+                    WHERE (%1$s)%2$s
+                    UNION ALL
+                    SELECT app, uri, COUNT(*) AS hits
+                    FROM hits
+                    WHERE timestamp BETWEEN :start AND :end%2$s
+                    AND (id > (SELECT last_hit_id FROM hits_rollup_state WHERE id = 1)
+                        OR timestamp < :coveredFrom OR timestamp >= :coveredTo)
+                    GROUP BY app, uri
+                ) s
+                GROUP BY app, uri
+                ORDER BY SUM(hits) DESC%3$s
+                """.formatted(rangeFilter(plan.getRanges(), params), uriFilter, limitClause);
+    }
+
+    static String rangeFilter(List<RollupRange> ranges, MapSqlParameterSource params) {
+        StringBuilder filter = new StringBuilder();
+        for (int i = 0; i < ranges.size(); i++) {
+            RollupRange range = ranges.get(i);
+            filter.append(i == 0 ? "" : " OR ")
+                    .append("(granularity = :g").append(i)
+                    .append(" AND bucket_start >= :f").append(i)
+                    .append(" AND bucket_start < :t").append(i).append(")");
+            params.addValue("g" + i, range.getGranularity().name())
+                    .addValue("f" + i, range.getFrom())
+                    .addValue("t" + i, range.getTo());
+        }
+        return filter.toString();
+    }
+}
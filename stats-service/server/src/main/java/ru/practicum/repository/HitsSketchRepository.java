@@ -0,0 +1,144 @@
+package ru.practicum.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.StatsQueryPlan;
+import ru.practicum.model.UniqueSketchKey;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Repository
+@RequiredArgsConstructor
+public class HitsSketchRepository {
+    private static final String FIND_HITS = """
+            SELECT app, uri, ip, timestamp
+            FROM hits
+            WHERE id > :fromId AND id <= :toId
+            """;
+
+    private static final String FIND_SKETCHES_IN_BUCKETS = """
+            SELECT granularity, bucket_start, app, uri, registers
+            FROM hits_unique_rollup
+            WHERE granularity = :granularity AND bucket_start >= :from AND bucket_start <= :to
+            """;
+
+    private static final String UPDATE_SKETCH = """
+            UPDATE hits_unique_rollup
+            SET registers = ?
+            WHERE granularity = ? AND uri = ? AND app = ? AND bucket_start = ?
+            """;
+
+    private static final String INSERT_SKETCH = """
+            INSERT INTO hits_unique_rollup (registers, granularity, uri, app, bucket_start)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<EndpointHit> findHits(long fromId, long toId) {
+        return jdbcTemplate.query(FIND_HITS, new MapSqlParameterSource()
+                .addValue("fromId", fromId)
+                .addValue("toId", toId), (rs, rowNum) -> EndpointHit.builder()
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .ip(rs.getString("ip"))
+                .timestamp(rs.getTimestamp("timestamp").toLocalDateTime())
+                .build());
+    }
+
+    public Map<UniqueSketchKey, HyperLogLog> findSketches(RollupGranularity granularity,
+                                                          LocalDateTime from, LocalDateTime to) {
+        Map<UniqueSketchKey, HyperLogLog> sketches = new HashMap<>();
+        jdbcTemplate.query(FIND_SKETCHES_IN_BUCKETS, new MapSqlParameterSource()
+                .addValue("granularity", granularity.name())
+                .addValue("from", from)
+                .addValue("to", to), rs -> {
+            sketches.put(new UniqueSketchKey(
+                            RollupGranularity.valueOf(rs.getString("granularity")),
+                            rs.getTimestamp("bucket_start").toLocalDateTime(),
+                            rs.getString("app"),
+                            rs.getString("uri")),
+                    HyperLogLog.fromBytes(rs.getBytes("registers")));
+        });
+        return sketches;
+    }
+
+    public void saveSketches(Map<UniqueSketchKey, HyperLogLog> sketches, Set<UniqueSketchKey> existing) {
+        List<Map.Entry<UniqueSketchKey, HyperLogLog>> updates = new ArrayList<>();
+        List<Map.Entry<UniqueSketchKey, HyperLogLog>> inserts = new ArrayList<>();
+        for (Map.Entry<UniqueSketchKey, HyperLogLog> entry : sketches.entrySet()) {
+            (existing.contains(entry.getKey()) ? updates : inserts).add(entry);
+        }
+        saveSketches(UPDATE_SKETCH, updates);
+        saveSketches(INSERT_SKETCH, inserts);
+    }
+
+    public List<Map.Entry<UniqueSketchKey, HyperLogLog>> findSketches(StatsQueryPlan plan, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = """
+                SELECT granularity, bucket_start, app, uri, registers
+                FROM hits_unique_rollup
+                WHERE (%s)
+                """.formatted(HitsRollupRepository.rangeFilter(plan.getRanges(), params));
+        if (uris != null) {
+            params.addValue("uris", uris);
+            sql += " AND uri IN (:uris)";
+        }
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> Map.entry(
+                new UniqueSketchKey(
+                        RollupGranularity.valueOf(rs.getString("granularity")),
+                        rs.getTimestamp("bucket_start").toLocalDateTime(),
+                        rs.getString("app"),
+                        rs.getString("uri")),
+                HyperLogLog.fromBytes(rs.getBytes("registers"))));
+    }
+
+    public List<EndpointHit> findDistinctRawIps(StatsQueryPlan plan, long watermark, List<String> uris) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", plan.getStart())
+                .addValue("end", plan.getEnd())
+                .addValue("coveredFrom", plan.getCoveredFrom())
+                .addValue("coveredTo", plan.getCoveredTo())
+                .addValue("watermark", watermark);
+        String sql = """
+                SELECT DISTINCT app, uri, ip
+                FROM hits
+                WHERE timestamp BETWEEN :start AND :end
+                AND (id > :watermark OR timestamp < :coveredFrom OR timestamp >= :coveredTo)
+                """;
+        if (uris != null) {
+            params.addValue("uris", uris);
+            sql += " AND uri IN (:uris)";
+        }
+        return jdbcTemplate.query(sql, params, (rs, rowNum) -> EndpointHit.builder()
+                .app(rs.getString("app"))
+                .uri(rs.getString("uri"))
+                .ip(rs.getString("ip"))
+                .build());
+    }
+
+    private void saveSketches(String sql, List<Map.Entry<UniqueSketchKey, HyperLogLog>> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.getJdbcTemplate().batchUpdate(sql, sketches, sketches.size(), (ps, entry) -> {
+            UniqueSketchKey key = entry.getKey();
+            ps.setBytes(1, entry.getValue().toBytes());
+            ps.setString(2, key.getGranularity().name());
+            ps.setString(3, key.getUri());
+            ps.setString(4, key.getApp());
+            ps.setTimestamp(5, Timestamp.valueOf(key.getBucketStart()));
+        });
+    }
+}
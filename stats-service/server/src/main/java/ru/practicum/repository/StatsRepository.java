@@ -1,15 +1,20 @@
 package ru.practicum.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import ru.practicum.model.Stats;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.model.EndpointHit;
 import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
+public interface StatsRepository extends JpaRepository<EndpointHit, Long>, HitBatchRepository {
     @Query("""
             SELECT new ru.practicum.model.Stats(h.app, h.uri, COUNT(h.ip))
             FROM EndpointHit as h
@@ -20,7 +25,22 @@ public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
             """)
     List<Stats> findStats(@Param("start") LocalDateTime start,
                           @Param("end") LocalDateTime end,
-                          @Param("uris") List<String> uris);
+                          @Param("uris") List<String> uris,
+                          Limit limit);
+
+    @Query("""
+            SELECT new ru.practicum.model.Stats(h.app, h.uri, COUNT(h.ip))
+            FROM EndpointHit as h
+            WHERE h.timestamp BETWEEN :start AND :end
+            AND (:uris IS NULL OR h.uri IN :uris)
+            GROUP BY h.app, h.uri
+            ORDER BY COUNT(h.ip) DESC
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Stats> streamStats(@Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end,
+                              @Param("uris") List<String> uris,
+                              Limit limit);
 
     @Query("""
             SELECT new ru.practicum.model.Stats(h.app, h.uri, COUNT(DISTINCT h.ip))
@@ -32,5 +52,20 @@ public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
             """)
     List<Stats> findUniqueStats(@Param("start") LocalDateTime start,
                                 @Param("end") LocalDateTime end,
-                                @Param("uris") List<String> uris);
+                                @Param("uris") List<String> uris,
+                                Limit limit);
+
+    @Query("""
+            SELECT new ru.practicum.model.Stats(h.app, h.uri, COUNT(DISTINCT h.ip))
+            FROM EndpointHit as h
+            WHERE h.timestamp BETWEEN :start AND :end
+            AND (:uris IS NULL OR h.uri IN :uris)
+            GROUP BY h.app, h.uri
+            ORDER BY COUNT(DISTINCT h.ip) DESC
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Stats> streamUniqueStats(@Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("uris") List<String> uris,
+                                    Limit limit);
 }
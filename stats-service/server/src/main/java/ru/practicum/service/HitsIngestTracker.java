@@ -0,0 +1,40 @@
+package ru.practicum.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Агрегация не продвигается дальше нижней границы id самой старой незавершённой записи просмотров
+@Component
+public class HitsIngestTracker {
+    private final Map<Object, Long> inFlight = new ConcurrentHashMap<>();
+    private volatile long lastSeenHitId;
+
+    public void begin() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Object token = new Object();
+        inFlight.put(token, lastSeenHitId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                inFlight.remove(token);
+            }
+        });
+    }
+
+    // maxHitId читается из базы до вызова: строки с меньшими id либо уже видны,
+    // либо принадлежат транзакции, которая ещё учтена в inFlight
+    public long safeHitId(long maxHitId) {
+        lastSeenHitId = maxHitId;
+        long safe = maxHitId;
+        for (long mark : inFlight.values()) {
+            safe = Math.min(safe, mark);
+        }
+        return safe;
+    }
+}
@@ -0,0 +1,84 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.practicum.repository.HitsPartitionRepository;
+
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.partitions.enabled", havingValue = "true")
+public class HitsPartitionService {
+    private static final Pattern PARTITION_NAME = Pattern.compile("hits_y(\\d{4})m(\\d{2})");
+
+    private final HitsPartitionRepository partitionRepository;
+
+    @Value("${stats.partitions.months-ahead:2}")
+    private int monthsAhead = 2;
+
+    // 0 - хранить сырые просмотры бессрочно. Удалённые секции уже учтены в hits_rollup,
+    // но точный подсчёт уникальных IP за эти месяцы становится невозможен
+    @Value("${stats.partitions.retention-months:0}")
+    private int retentionMonths = 0;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${stats.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+        if (!partitionRepository.isPartitioned()) {
+            log.warn("Таблица hits не секционирована, обслуживание секций пропущено");
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        Set<String> existing = new HashSet<>(partitionRepository.findPartitionNames());
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i), existing);
+        }
+        if (retentionMonths > 0) {
+            dropPartitionsBefore(current.minusMonths(retentionMonths), existing);
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return "hits_y%04dm%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    private void createPartition(YearMonth month, Set<String> existing) {
+        String name = partitionName(month);
+        if (existing.contains(name)) {
+            return;
+        }
+        try {
+            partitionRepository.createPartition(name, month.atDay(1), month.plusMonths(1).atDay(1));
+            log.info("Создана секция {} таблицы просмотров", name);
+        } catch (DataAccessException e) {
+            log.error("Не удалось создать секцию {} таблицы просмотров: {}", name, e.getMessage());
+        }
+    }
+
+    private void dropPartitionsBefore(YearMonth oldestKept, Set<String> existing) {
+        for (String name : existing) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (month.isBefore(oldestKept)) {
+                partitionRepository.dropPartition(name);
+                log.info("Удалена устаревшая секция {} таблицы просмотров", name);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package ru.practicum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupState;
+import ru.practicum.model.UniqueSketchKey;
+import ru.practicum.repository.HitsRollupRepository;
+import ru.practicum.repository.HitsSketchRepository;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HitsRollupService {
+    public static final List<RollupGranularity> SKETCH_GRANULARITIES = List.of(RollupGranularity.DAY, RollupGranularity.HOUR);
+
+    private final HitsRollupRepository rollupRepository;
+    private final HitsSketchRepository sketchRepository;
+    private final HitsIngestTracker ingestTracker;
+
+    @Value("${stats.rollup.chunk-size:50000}")
+    private long chunkSize = 50000;
+
+    // Просмотры попадают в агрегаты с задержкой в один цикл и не дальше самой старой
+    // незавершённой транзакции записи этого экземпляра: строки, зафиксированные позже,
+    // не должны оказаться ниже водяного знака
+    @Scheduled(fixedDelayString = "${stats.rollup.interval:5000}")
+    @Transactional
+    public void rollup() {
+        RollupState state = rollupRepository.lockState();
+        long maxHitId = rollupRepository.findMaxHitId();
+        long upTo = Math.min(state.getPendingHitId(), ingestTracker.safeHitId(maxHitId));
+        long from = Math.min(state.getLastHitId(), upTo);
+        while (from < upTo) {
+            long to = Math.min(from + chunkSize, upTo);
+            rollupRepository.rollup(from, to);
+            rollupSketches(sketchRepository.findHits(from, to));
+            from = to;
+        }
+        rollupRepository.updateState(upTo, maxHitId);
+        if (upTo > state.getLastHitId()) {
+            log.debug("Агрегаты статистики обновлены до просмотра с id {}", upTo);
+        }
+    }
+
+    private void rollupSketches(List<EndpointHit> hits) {
+        for (RollupGranularity granularity : SKETCH_GRANULARITIES) {
+            Map<UniqueSketchKey, HyperLogLog> sketches = new HashMap<>();
+            LocalDateTime minBucket = null;
+            LocalDateTime maxBucket = null;
+            for (EndpointHit hit : hits) {
+                LocalDateTime bucket = granularity.floor(hit.getTimestamp());
+                sketches.computeIfAbsent(new UniqueSketchKey(granularity, bucket, hit.getApp(), hit.getUri()),
+                        key -> new HyperLogLog()).add(hit.getIp());
+                minBucket = minBucket == null || bucket.isBefore(minBucket) ? bucket : minBucket;
+                maxBucket = maxBucket == null || bucket.isAfter(maxBucket) ? bucket : maxBucket;
+            }
+            if (sketches.isEmpty()) {
+                continue;
+            }
+            Map<UniqueSketchKey, HyperLogLog> existing = sketchRepository.findSketches(granularity, minBucket, maxBucket);
+            existing.keySet().retainAll(sketches.keySet());
+            existing.forEach((key, sketch) -> sketches.get(key).merge(sketch));
+            sketchRepository.saveSketches(sketches, existing.keySet());
+        }
+    }
+}
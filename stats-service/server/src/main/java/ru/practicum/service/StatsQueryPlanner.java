@@ -0,0 +1,50 @@
+package ru.practicum.service;
+
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupRange;
+import ru.practicum.model.StatsQueryPlan;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StatsQueryPlanner {
+
+    public static StatsQueryPlan plan(LocalDateTime start, LocalDateTime end) {
+        return plan(start, end, RollupGranularity.MINUTE);
+    }
+
+    // Отрезок [start, end] делится на целые корзины агрегатов вплоть до finest,
+    // а неполные корзины по краям считаются по сырым просмотрам
+    public static StatsQueryPlan plan(LocalDateTime start, LocalDateTime end, RollupGranularity finest) {
+        LocalDateTime coveredFrom = finest.ceil(start);
+        LocalDateTime coveredTo = finest.floor(end);
+        List<RollupRange> ranges = new ArrayList<>();
+        if (coveredFrom.isBefore(coveredTo)) {
+            cover(coveredFrom, coveredTo, RollupGranularity.DAY, finest, ranges);
+        } else {
+            coveredTo = coveredFrom;
+        }
+        return new StatsQueryPlan(start, end, coveredFrom, coveredTo, ranges);
+    }
+
+    private static void cover(LocalDateTime from, LocalDateTime to, RollupGranularity granularity,
+                              RollupGranularity finest, List<RollupRange> ranges) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        if (granularity == finest) {
+            ranges.add(new RollupRange(granularity, from, to));
+            return;
+        }
+        LocalDateTime alignedFrom = granularity.ceil(from);
+        LocalDateTime alignedTo = granularity.floor(to);
+        if (alignedFrom.isBefore(alignedTo)) {
+            cover(from, alignedFrom, granularity.finer(), finest, ranges);
+            ranges.add(new RollupRange(granularity, alignedFrom, alignedTo));
+            cover(alignedTo, to, granularity.finer(), finest, ranges);
+        } else {
+            cover(from, to, granularity.finer(), finest, ranges);
+        }
+    }
+}
@@ -1,35 +1,148 @@
 package ru.practicum.service;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
 import ru.practicum.model.StatsMapper;
 import ru.practicum.model.EndpointHitMapper;
 import ru.practicum.model.Stats;
+import ru.practicum.model.StatsQueryPlan;
+import ru.practicum.model.UniqueSketchKey;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.practicum.repository.HitsRollupRepository;
+import ru.practicum.repository.HitsSketchRepository;
 import ru.practicum.repository.StatsRepository;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.StatsDto;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class StatsService {
     @Autowired
     private final StatsRepository statsRepository;
+    private final HitsRollupRepository rollupRepository;
+    private final HitsSketchRepository sketchRepository;
+    private final HitsIngestTracker ingestTracker;
+    private final ObjectMapper objectMapper;
 
+    @Value("${stats.hits.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Transactional
     public EndpointHitDto hit(EndpointHitDto endpointHitDto) {
+        ingestTracker.begin();
         return EndpointHitMapper.toEndpointHitDto(
                 statsRepository.save(EndpointHitMapper.toEndpointHit(endpointHitDto))
         );
     }
 
+    @Transactional
+    public long hitBatch(List<EndpointHitDto> endpointHitDtos) {
+        ingestTracker.begin();
+        long saved = 0;
+        List<EndpointHit> batch = new ArrayList<>(Math.min(batchSize, endpointHitDtos.size()));
+        for (EndpointHitDto endpointHitDto : endpointHitDtos) {
+            batch.add(toValidEndpointHit(endpointHitDto));
+            if (batch.size() == batchSize) {
+                saved += statsRepository.insertBatch(batch);
+                batch.clear();
+            }
+        }
+        return saved + statsRepository.insertBatch(batch);
+    }
+
+    @Transactional
+    public long hitStream(InputStream inputStream) throws IOException {
+        ingestTracker.begin();
+        long saved = 0;
+        List<EndpointHit> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<EndpointHitDto> iterator = objectMapper.readerFor(EndpointHitDto.class).readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                batch.add(toValidEndpointHit(iterator.nextValue()));
+                if (batch.size() == batchSize) {
+                    saved += statsRepository.insertBatch(batch);
+                    batch.clear();
+                }
+            }
+        }
+        return saved + statsRepository.insertBatch(batch);
+    }
+
     public List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        return getStats(start, end, uris, unique, false, null);
+    }
+
+    public List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                   Boolean approximate) {
+        return getStats(start, end, uris, unique, approximate, null);
+    }
+
+    public List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                   Boolean approximate, Integer limit) {
+        validate(start, end, limit);
+        if (!unique.equals(Boolean.TRUE)) {
+            return getStats(start, end, uris, limit);
+        }
+        return approximate.equals(Boolean.TRUE)
+                ? statsMapping(getApproximateUniqueStats(start, end, uris, limit))
+                : statsMapping(statsRepository.findUniqueStats(start, end, uris, toLimit(limit)));
+    }
+
+    // Строки читаются из базы курсором и сразу передаются в consumer, ответ целиком в памяти не собирается.
+    // Проверка параметров выполняется до первой строки, пока ответ еще можно заменить ошибкой
+    @Transactional(readOnly = true)
+    public void streamStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                            Boolean approximate, Integer limit, Consumer<StatsDto> consumer) {
+        validate(start, end, limit);
+        if (unique.equals(Boolean.TRUE) && approximate.equals(Boolean.TRUE)) {
+            getApproximateUniqueStats(start, end, uris, limit)
+                    .forEach(stat -> consumer.accept(StatsMapper.toStatsDto(stat)));
+            return;
+        }
+        try (Stream<Stats> stats = openStatsStream(start, end, uris, unique, limit)) {
+            stats.map(StatsMapper::toStatsDto).forEachOrdered(consumer);
+        }
+    }
+
+    private Stream<Stats> openStatsStream(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                          Integer limit) {
+        if (unique.equals(Boolean.TRUE)) {
+            return statsRepository.streamUniqueStats(start, end, uris, toLimit(limit));
+        }
+        StatsQueryPlan plan = StatsQueryPlanner.plan(start, end);
+        if (!plan.hasRollups()) {
+            return statsRepository.streamStats(start, end, uris, toLimit(limit));
+        }
+        return rollupRepository.streamStats(plan, uris, limit);
+    }
+
+    private void validate(LocalDateTime start, LocalDateTime end, Integer limit) {
         validateDates(start, end);
-        return unique.equals(Boolean.TRUE)
-                ? getUniqueStats(start, end, uris)
-                : getStats(start, end, uris);
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Ограничение количества записей должно быть положительным");
+        }
+    }
+
+    private static Limit toLimit(Integer limit) {
+        return limit == null ? Limit.unlimited() : Limit.of(limit);
     }
 
     private void validateDates(LocalDateTime start, LocalDateTime end) {
@@ -46,12 +159,50 @@ public class StatsService {
         }
     }
 
-    private List<StatsDto> getUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
-        return statsMapping(statsRepository.findUniqueStats(start, end, uris));
+    private EndpointHit toValidEndpointHit(EndpointHitDto endpointHitDto) {
+        if (endpointHitDto == null || endpointHitDto.getApp() == null
+                || endpointHitDto.getUri() == null || endpointHitDto.getIp() == null) {
+            throw new IllegalArgumentException("У просмотра должны быть указаны app, uri и ip");
+        }
+        return EndpointHitMapper.toEndpointHit(endpointHitDto);
+    }
+
+    // Водяной знак читается до слепков: объединение HyperLogLog идемпотентно, поэтому
+    // просмотры, попавшие и в слепок, и в сырую выборку, не завышают оценку
+    private List<Stats> getApproximateUniqueStats(LocalDateTime start, LocalDateTime end, List<String> uris,
+                                                  Integer limit) {
+        StatsQueryPlan plan = StatsQueryPlanner.plan(start, end, RollupGranularity.HOUR);
+        if (!plan.hasRollups()) {
+            return statsRepository.findUniqueStats(start, end, uris, toLimit(limit));
+        }
+        long watermark = rollupRepository.findWatermark();
+        Map<String, Map<String, HyperLogLog>> sketches = new HashMap<>();
+        for (Map.Entry<UniqueSketchKey, HyperLogLog> entry : sketchRepository.findSketches(plan, uris)) {
+            sketches.computeIfAbsent(entry.getKey().getApp(), app -> new HashMap<>())
+                    .computeIfAbsent(entry.getKey().getUri(), uri -> new HyperLogLog())
+                    .merge(entry.getValue());
+        }
+        for (EndpointHit hit : sketchRepository.findDistinctRawIps(plan, watermark, uris)) {
+            sketches.computeIfAbsent(hit.getApp(), app -> new HashMap<>())
+                    .computeIfAbsent(hit.getUri(), uri -> new HyperLogLog())
+                    .add(hit.getIp());
+        }
+        List<Stats> stats = new ArrayList<>();
+        sketches.forEach((app, byUri) -> byUri.forEach((uri, sketch) -> stats.add(Stats.builder()
+                .app(app)
+                .uri(uri)
+                .hits(sketch.estimate())
+                .build())));
+        stats.sort(Comparator.comparing(Stats::getHits).reversed());
+        return limit == null || stats.size() <= limit ? stats : stats.subList(0, limit);
     }
 
-    private List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris) {
-        return statsMapping(statsRepository.findStats(start, end, uris));
+    private List<StatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Integer limit) {
+        StatsQueryPlan plan = StatsQueryPlanner.plan(start, end);
+        if (!plan.hasRollups()) {
+            return statsMapping(statsRepository.findStats(start, end, uris, toLimit(limit)));
+        }
+        return statsMapping(rollupRepository.findStats(plan, uris, limit));
     }
 
     private List<StatsDto> statsMapping(List<Stats> stats) {
@@ -0,0 +1,26 @@
+CREATE SEQUENCE IF NOT EXISTS hits_id_seq;
+
+CREATE TABLE IF NOT EXISTS hits
+(
+    id        BIGINT       NOT NULL DEFAULT nextval('hits_id_seq'),
+    app       VARCHAR(128) NOT NULL,
+    uri       VARCHAR(255) NOT NULL,
+    ip        VARCHAR(16)  NOT NULL,
+    timestamp timestamp WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_hits PRIMARY KEY (id, timestamp)
+    ) PARTITION BY RANGE (timestamp);
+
+-- Таблица hits, созданная до перехода на секции, остаётся несекционированной до ручной миграции
+DO '
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(''hits'')) THEN
+        ALTER SEQUENCE hits_id_seq OWNED BY hits.id;
+        CREATE TABLE IF NOT EXISTS hits_default PARTITION OF hits DEFAULT;
+    ELSE
+        RAISE NOTICE ''Таблица hits не секционирована, секции не создаются'';
+    END IF;
+END';
+
+CREATE INDEX IF NOT EXISTS idx_hits_uri_timestamp ON hits (uri, timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_hits_timestamp ON hits (timestamp);
@@ -1,8 +1,34 @@
-CREATE TABLE  IF NOT EXISTS hits
+CREATE TABLE IF NOT EXISTS hits_rollup
 (
-    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    app       VARCHAR(128) NOT NULL,
-    uri       VARCHAR(255) NOT NULL,
-    ip        VARCHAR(16) NOT NULL,
-    timestamp timestamp WITHOUT TIME ZONE NOT NULL
-    );
\ No newline at end of file
+    granularity  VARCHAR(8)   NOT NULL,
+    bucket_start timestamp WITHOUT TIME ZONE NOT NULL,
+    app          VARCHAR(128) NOT NULL,
+    uri          VARCHAR(255) NOT NULL,
+    hits         BIGINT       NOT NULL,
+    CONSTRAINT pk_hits_rollup PRIMARY KEY (granularity, uri, app, bucket_start)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_hits_rollup_bucket ON hits_rollup (granularity, bucket_start);
+
+CREATE TABLE IF NOT EXISTS hits_rollup_state
+(
+    id             INT    NOT NULL PRIMARY KEY,
+    last_hit_id    BIGINT NOT NULL,
+    pending_hit_id BIGINT NOT NULL
+    );
+
+INSERT INTO hits_rollup_state (id, last_hit_id, pending_hit_id)
+SELECT 1, 0, 0
+WHERE NOT EXISTS (SELECT 1 FROM hits_rollup_state WHERE id = 1);
+
+CREATE TABLE IF NOT EXISTS hits_unique_rollup
+(
+    granularity  VARCHAR(8)   NOT NULL,
+    bucket_start timestamp WITHOUT TIME ZONE NOT NULL,
+    app          VARCHAR(128) NOT NULL,
+    uri          VARCHAR(255) NOT NULL,
+    registers    BYTEA        NOT NULL,
+    CONSTRAINT pk_hits_unique_rollup PRIMARY KEY (granularity, uri, app, bucket_start)
+    );
+
+CREATE INDEX IF NOT EXISTS idx_hits_unique_rollup_bucket ON hits_unique_rollup (granularity, bucket_start);
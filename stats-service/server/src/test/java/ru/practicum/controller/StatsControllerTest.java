@@ -62,7 +62,7 @@ class StatsControllerTest {
 
     @Test
     void getStatsShouldReturnOkStatus() throws Exception {
-        when(service.getStats(any(LocalDateTime.class), any(LocalDateTime.class), any(), any(Boolean.class)))
+        when(service.getStats(any(LocalDateTime.class), any(LocalDateTime.class), any(), any(Boolean.class), any(Boolean.class), any()))
                 .thenReturn(List.of(statsDto));
 
         mockMvc.perform(get("/stats")
@@ -78,7 +78,7 @@ class StatsControllerTest {
 
     @Test
     void getStatsWithoutUrisShouldReturnOkStatus() throws Exception {
-        when(service.getStats(any(LocalDateTime.class), any(LocalDateTime.class), any(), any(Boolean.class)))
+        when(service.getStats(any(LocalDateTime.class), any(LocalDateTime.class), any(), any(Boolean.class), any(Boolean.class), any()))
                 .thenReturn(List.of(statsDto));
 
         mockMvc.perform(get("/stats")
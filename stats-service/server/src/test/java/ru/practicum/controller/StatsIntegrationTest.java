@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.dto.EndpointHitDto;
@@ -15,6 +17,7 @@ import java.time.format.DateTimeFormatter;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -103,4 +106,93 @@ class StatsIntegrationTest {
                         .param("end", end.format(formatter)))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getStatsWithLimitShouldReturnTopRows() throws Exception {
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("uris", "/events/1", "/events/2")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].hits").value(3));
+    }
+
+    @Test
+    void streamStatsShouldReturnSameArrayAsList() throws Exception {
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("uris", "/events/1", "/events/2")
+                        .param("unique", "true")
+                        .param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].hits").value(2))
+                .andExpect(jsonPath("$[1].hits").value(1));
+    }
+
+    @Test
+    void streamStatsAsNdjsonShouldWriteOneObjectPerLine() throws Exception {
+        String body = mockMvc.perform(get("/stats")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("uris", "/events/1", "/events/2"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"hits\":3"));
+        assertTrue(lines[1].contains("\"hits\":2"));
+    }
+
+    @Test
+    void streamStatsWithStreamParamShouldHonourNdjsonAccept() throws Exception {
+        String body = mockMvc.perform(get("/stats")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("uris", "/events/1", "/events/2")
+                        .param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(2, body.split("\n").length);
+    }
+
+    @Test
+    void streamStatsShouldPreferJsonWhenAcceptRanksItHigher() throws Exception {
+        mockMvc.perform(get("/stats")
+                        .header(HttpHeaders.ACCEPT, "application/x-ndjson;q=0.5, application/json")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("uris", "/events/1", "/events/2")
+                        .param("stream", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void streamStatsWithInvalidLimitShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/stats")
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("limit", "0")
+                        .param("stream", "true"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/stats")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", "2023-01-01 00:00:00")
+                        .param("end", "2023-01-03 00:00:00")
+                        .param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimateShouldStayWithinErrorBound() {
+        HyperLogLog sketch = new HyperLogLog();
+        int distinct = 100_000;
+        for (int i = 0; i < distinct; i++) {
+            sketch.add("10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF));
+            sketch.add("10." + (i >> 16) + "." + ((i >> 8) & 0xFF) + "." + (i & 0xFF));
+        }
+
+        double error = Math.abs(sketch.estimate() - distinct) / (double) distinct;
+
+        assertTrue(error < 3 * HyperLogLog.STANDARD_ERROR, "Ошибка оценки " + error);
+    }
+
+    @Test
+    void estimateForSmallCardinalityShouldBeExact() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 20; i++) {
+            sketch.add("192.168.0." + i);
+        }
+
+        assertEquals(20, sketch.estimate());
+    }
+
+    @Test
+    void mergeShouldEstimateUnion() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            first.add("ip-" + i);
+            second.add("ip-" + (i + 15_000));
+        }
+
+        first.merge(second);
+
+        double error = Math.abs(first.estimate() - 45_000) / 45_000.0;
+        assertTrue(error < 3 * HyperLogLog.STANDARD_ERROR, "Ошибка оценки " + error);
+    }
+
+    @Test
+    void toBytesShouldUseSparseFormatForFewRegisters() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add("127.0.0.1");
+        sketch.add("127.0.0.2");
+
+        byte[] bytes = sketch.toBytes();
+
+        assertEquals(7, bytes.length);
+        assertEquals(2, HyperLogLog.fromBytes(bytes).estimate());
+    }
+
+    @Test
+    void toBytesShouldRoundTripDenseFormat() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 50_000; i++) {
+            sketch.add("ip-" + i);
+        }
+
+        byte[] bytes = sketch.toBytes();
+
+        assertEquals(1 + HyperLogLog.REGISTERS, bytes.length);
+        assertEquals(sketch.estimate(), HyperLogLog.fromBytes(bytes).estimate());
+    }
+
+    @Test
+    void fromBytesWithBrokenDataShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{0, 1, 2}));
+    }
+}
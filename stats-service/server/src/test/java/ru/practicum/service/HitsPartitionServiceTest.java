@@ -0,0 +1,91 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.repository.HitsPartitionRepository;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HitsPartitionServiceTest {
+
+    @Mock
+    private HitsPartitionRepository partitionRepository;
+
+    @InjectMocks
+    private HitsPartitionService partitionService;
+
+    @Test
+    void maintainPartitionsShouldCreateMissingMonthsAhead() {
+        YearMonth current = YearMonth.now();
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findPartitionNames())
+                .thenReturn(List.of("hits_default", HitsPartitionService.partitionName(current)));
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, never()).createPartition(eq(HitsPartitionService.partitionName(current)), any(), any());
+        verify(partitionRepository).createPartition(HitsPartitionService.partitionName(current.plusMonths(1)),
+                current.plusMonths(1).atDay(1), current.plusMonths(2).atDay(1));
+        verify(partitionRepository).createPartition(HitsPartitionService.partitionName(current.plusMonths(2)),
+                current.plusMonths(2).atDay(1), current.plusMonths(3).atDay(1));
+        verify(partitionRepository, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void maintainPartitionsShouldDropMonthsOutsideRetention() {
+        YearMonth current = YearMonth.now();
+        ReflectionTestUtils.setField(partitionService, "retentionMonths", 3);
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findPartitionNames()).thenReturn(List.of(
+                "hits_default",
+                HitsPartitionService.partitionName(current.minusMonths(4)),
+                HitsPartitionService.partitionName(current.minusMonths(3))));
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository).dropPartition(HitsPartitionService.partitionName(current.minusMonths(4)));
+        verify(partitionRepository, never()).dropPartition(HitsPartitionService.partitionName(current.minusMonths(3)));
+        verify(partitionRepository, never()).dropPartition("hits_default");
+    }
+
+    @Test
+    void maintainPartitionsShouldContinueWhenCreationFails() {
+        when(partitionRepository.isPartitioned()).thenReturn(true);
+        when(partitionRepository.findPartitionNames()).thenReturn(List.of());
+        doThrow(new DataIntegrityViolationException("строки уже в секции по умолчанию"))
+                .doNothing()
+                .when(partitionRepository).createPartition(anyString(), any(), any());
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, times(3)).createPartition(anyString(), any(), any());
+    }
+
+    @Test
+    void maintainPartitionsShouldSkipNotPartitionedTable() {
+        when(partitionRepository.isPartitioned()).thenReturn(false);
+
+        partitionService.maintainPartitions();
+
+        verify(partitionRepository, never()).findPartitionNames();
+        verify(partitionRepository, never()).createPartition(anyString(), any(), any());
+    }
+
+    @Test
+    void partitionNameShouldContainYearAndMonth() {
+        assertEquals("hits_y2024m03", HitsPartitionService.partitionName(YearMonth.of(2024, 3)));
+    }
+}
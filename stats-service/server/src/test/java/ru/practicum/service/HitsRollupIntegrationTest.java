@@ -0,0 +1,121 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.dto.EndpointHitDto;
+import ru.practicum.dto.StatsDto;
+import ru.practicum.utils.SimpleDateTimeFormatter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "stats.rollup.interval=3600000")
+@Sql(scripts = "classpath:clean-up.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+class HitsRollupIntegrationTest {
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private HitsRollupService rollupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void statsShouldNotChangeAfterRollup() {
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            jdbcTemplate.update("INSERT INTO hits (app, uri, ip, timestamp) VALUES (?, ?, ?, ?)",
+                    "ewm-service", "/events/" + (i % 3), "10.0.0." + (i % 7), base.plusMinutes(i * 37L).plusSeconds(i % 60));
+        }
+        LocalDateTime start = base.plusHours(5).plusSeconds(13);
+        LocalDateTime end = base.plusDays(9).plusMinutes(17).plusSeconds(3);
+        List<StatsDto> expected = statsService.getStats(start, end, null, false);
+
+        rollupService.rollup();
+        rollupService.rollup();
+
+        assertEquals(expected, statsService.getStats(start, end, null, false));
+        assertEquals(500L, jdbcTemplate.queryForObject("SELECT last_hit_id FROM hits_rollup_state", Long.class));
+    }
+
+    @Test
+    void statsShouldCountHitsNewerThanWatermark() {
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        jdbcTemplate.update("INSERT INTO hits (app, uri, ip, timestamp) VALUES (?, ?, ?, ?)",
+                "ewm-service", "/events/1", "10.0.0.1", base.plusHours(1));
+        rollupService.rollup();
+        rollupService.rollup();
+        jdbcTemplate.update("INSERT INTO hits (app, uri, ip, timestamp) VALUES (?, ?, ?, ?)",
+                "ewm-service", "/events/1", "10.0.0.2", base.plusHours(2));
+
+        List<StatsDto> stats = statsService.getStats(base, base.plusDays(1), List.of("/events/1"), false);
+
+        assertEquals(1, stats.size());
+        assertEquals(2L, stats.getFirst().getHits());
+        assertEquals(2L, statsService.getStats(base, base.plusDays(1), List.of("/events/1"), true, true)
+                .getFirst().getHits());
+    }
+
+    @Test
+    void rollupShouldWaitForUncommittedBatch() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+        EndpointHitDto batchHit = EndpointHitDto.builder()
+                .app("ewm-service")
+                .uri("/events/1")
+                .ip("10.0.0.1")
+                .timestamp(SimpleDateTimeFormatter.toString(base.plusHours(1)))
+                .build();
+        // Агрегация запоминает максимальный id, от которого отсчитываются новые транзакции записи
+        rollupService.rollup();
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    statsService.hitBatch(List.of(batchHit, batchHit, batchHit));
+                    inserted.countDown();
+                    await(commit);
+                }));
+        try {
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            jdbcTemplate.update("INSERT INTO hits (app, uri, ip, timestamp) VALUES (?, ?, ?, ?)",
+                    "ewm-service", "/events/1", "10.0.0.2", base.plusHours(2));
+
+            rollupService.rollup();
+            rollupService.rollup();
+            assertEquals(0L, jdbcTemplate.queryForObject("SELECT last_hit_id FROM hits_rollup_state", Long.class));
+        } finally {
+            commit.countDown();
+            batch.get(10, TimeUnit.SECONDS);
+        }
+        rollupService.rollup();
+        rollupService.rollup();
+
+        assertEquals(4L, jdbcTemplate.queryForObject("SELECT last_hit_id FROM hits_rollup_state", Long.class));
+        assertEquals(4L, statsService.getStats(base, base.plusDays(1), List.of("/events/1"), false)
+                .getFirst().getHits());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.RollupRange;
+import ru.practicum.model.StatsQueryPlan;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatsQueryPlannerTest {
+
+    @Test
+    void planShouldCombineDaysHoursAndMinutes() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 22, 58, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 4, 1, 2, 10);
+
+        StatsQueryPlan plan = StatsQueryPlanner.plan(start, end);
+
+        assertEquals(LocalDateTime.of(2024, 1, 1, 22, 59), plan.getCoveredFrom());
+        assertEquals(LocalDateTime.of(2024, 1, 4, 1, 2), plan.getCoveredTo());
+        assertEquals(List.of(
+                new RollupRange(RollupGranularity.MINUTE, LocalDateTime.of(2024, 1, 1, 22, 59), LocalDateTime.of(2024, 1, 1, 23, 0)),
+                new RollupRange(RollupGranularity.HOUR, LocalDateTime.of(2024, 1, 1, 23, 0), LocalDateTime.of(2024, 1, 2, 0, 0)),
+                new RollupRange(RollupGranularity.DAY, LocalDateTime.of(2024, 1, 2, 0, 0), LocalDateTime.of(2024, 1, 4, 0, 0)),
+                new RollupRange(RollupGranularity.HOUR, LocalDateTime.of(2024, 1, 4, 0, 0), LocalDateTime.of(2024, 1, 4, 1, 0)),
+                new RollupRange(RollupGranularity.MINUTE, LocalDateTime.of(2024, 1, 4, 1, 0), LocalDateTime.of(2024, 1, 4, 1, 2))
+        ), plan.getRanges());
+    }
+
+    @Test
+    void planWithinOneMinuteShouldHaveNoRollups() {
+        StatsQueryPlan plan = StatsQueryPlanner.plan(LocalDateTime.of(2024, 1, 1, 10, 0, 1),
+                LocalDateTime.of(2024, 1, 1, 10, 0, 59));
+
+        assertFalse(plan.hasRollups());
+        assertEquals(plan.getCoveredFrom(), plan.getCoveredTo());
+    }
+
+    @Test
+    void planWithAlignedBoundsShouldUseOnlyDays() {
+        StatsQueryPlan plan = StatsQueryPlanner.plan(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 2, 1, 0, 0));
+
+        assertEquals(List.of(new RollupRange(RollupGranularity.DAY,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0))), plan.getRanges());
+    }
+}
@@ -1,23 +1,39 @@
 package ru.practicum.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import ru.practicum.dto.EndpointHitDto;
 import ru.practicum.dto.StatsDto;
 import ru.practicum.model.StatsMapper;
 import ru.practicum.model.EndpointHit;
+import ru.practicum.model.HyperLogLog;
+import ru.practicum.model.RollupGranularity;
+import ru.practicum.model.UniqueSketchKey;
+import ru.practicum.model.StatsQueryPlan;
+import ru.practicum.repository.HitsRollupRepository;
+import ru.practicum.repository.HitsSketchRepository;
 import ru.practicum.repository.StatsRepository;
 import ru.practicum.utils.SimpleDateTimeFormatter;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +42,18 @@ class StatsServiceTest {
     @Mock
     private StatsRepository endpointHitsRepository;
 
+    @Mock
+    private HitsRollupRepository rollupRepository;
+
+    @Mock
+    private HitsSketchRepository sketchRepository;
+
+    @Spy
+    private HitsIngestTracker ingestTracker = new HitsIngestTracker();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private ru.practicum.service.StatsService statsService;
 
@@ -74,7 +102,7 @@ class StatsServiceTest {
         LocalDateTime end = LocalDateTime.now();
         List<String> uris = List.of("/test");
 
-        when(endpointHitsRepository.findStats(start, end, uris))
+        when(rollupRepository.findStats(any(StatsQueryPlan.class), eq(uris), isNull()))
                 .thenReturn(List.of(StatsMapper.toStats(statsDto)));
 
         List<StatsDto> result = statsService.getStats(start, end, uris, false);
@@ -83,7 +111,25 @@ class StatsServiceTest {
         assertEquals(1, result.size());
         assertEquals("test-app", result.getFirst().getApp());
         assertEquals(10L, result.getFirst().getHits());
-        verify(endpointHitsRepository, times(1)).findStats(start, end, uris);
+        verify(rollupRepository, times(1)).findStats(argThat(plan -> plan.getStart().equals(start)
+                && plan.getEnd().equals(end) && plan.hasRollups()), eq(uris), isNull());
+        verify(endpointHitsRepository, never()).findStats(any(), any(), any(), any());
+    }
+
+    @Test
+    void getWithinOneMinuteShouldReadRawHits() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 0, 15);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 10, 0, 45);
+        List<String> uris = List.of("/test");
+
+        when(endpointHitsRepository.findStats(start, end, uris, Limit.unlimited()))
+                .thenReturn(List.of(StatsMapper.toStats(statsDto)));
+
+        List<StatsDto> result = statsService.getStats(start, end, uris, false);
+
+        assertEquals(1, result.size());
+        verify(endpointHitsRepository, times(1)).findStats(start, end, uris, Limit.unlimited());
+        verify(rollupRepository, never()).findStats(any(), any(), any());
     }
 
     @Test
@@ -92,7 +138,7 @@ class StatsServiceTest {
         LocalDateTime end = LocalDateTime.now();
         List<String> uris = List.of("/test");
 
-        when(endpointHitsRepository.findUniqueStats(start, end, uris))
+        when(endpointHitsRepository.findUniqueStats(start, end, uris, Limit.unlimited()))
                 .thenReturn(List.of(StatsMapper.toStats(statsDto)));
 
         List<StatsDto> result = statsService.getStats(start, end, uris, true);
@@ -101,7 +147,47 @@ class StatsServiceTest {
         assertEquals(1, result.size());
         assertEquals("test-app", result.getFirst().getApp());
         assertEquals(10L, result.getFirst().getHits());
-        verify(endpointHitsRepository, times(1)).findUniqueStats(start, end, uris);
+        verify(endpointHitsRepository, times(1)).findUniqueStats(start, end, uris, Limit.unlimited());
+    }
+
+    @Test
+    void getApproximateUniqueShouldMergeSketchesWithRawEdges() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 30);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 12, 30);
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add("10.0.0.1");
+        sketch.add("10.0.0.2");
+
+        when(rollupRepository.findWatermark()).thenReturn(5L);
+        when(sketchRepository.findSketches(any(StatsQueryPlan.class), isNull())).thenReturn(List.of(Map.entry(
+                new UniqueSketchKey(RollupGranularity.HOUR, LocalDateTime.of(2024, 1, 1, 10, 0), "test-app", "/test"),
+                sketch)));
+        when(sketchRepository.findDistinctRawIps(any(StatsQueryPlan.class), eq(5L), isNull())).thenReturn(List.of(
+                EndpointHit.builder().app("test-app").uri("/test").ip("10.0.0.2").build(),
+                EndpointHit.builder().app("test-app").uri("/test").ip("10.0.0.3").build(),
+                EndpointHit.builder().app("test-app").uri("/other").ip("10.0.0.1").build()));
+
+        List<StatsDto> result = statsService.getStats(start, end, null, true, true);
+
+        assertEquals(2, result.size());
+        assertEquals("/test", result.getFirst().getUri());
+        assertEquals(3L, result.getFirst().getHits());
+        assertEquals(1L, result.get(1).getHits());
+        verify(endpointHitsRepository, never()).findUniqueStats(any(), any(), any(), any());
+    }
+
+    @Test
+    void getApproximateUniqueWithinOneHourShouldCountExactly() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 10, 10);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 1, 10, 50);
+
+        when(endpointHitsRepository.findUniqueStats(start, end, null, Limit.unlimited()))
+                .thenReturn(List.of(StatsMapper.toStats(statsDto)));
+
+        List<StatsDto> result = statsService.getStats(start, end, null, true, true);
+
+        assertEquals(1, result.size());
+        verify(sketchRepository, never()).findSketches(any(), any());
     }
 
     @Test
@@ -109,14 +195,14 @@ class StatsServiceTest {
         LocalDateTime start = LocalDateTime.now().minusDays(1);
         LocalDateTime end = LocalDateTime.now();
 
-        when(endpointHitsRepository.findStats(start, end, null))
+        when(rollupRepository.findStats(any(StatsQueryPlan.class), isNull(), isNull()))
                 .thenReturn(List.of(StatsMapper.toStats(statsDto)));
 
         List<StatsDto> result = statsService.getStats(start, end, null, false);
 
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(endpointHitsRepository, times(1)).findStats(start, end, null);
+        verify(rollupRepository, times(1)).findStats(any(StatsQueryPlan.class), isNull(), isNull());
     }
 
     @Test
@@ -130,7 +216,43 @@ class StatsServiceTest {
         );
 
         assertEquals("Дата начала не может быть позже даты конца", exception.getMessage());
-        verify(endpointHitsRepository, never()).findStats(any(), any(), any());
-        verify(endpointHitsRepository, never()).findUniqueStats(any(), any(), any());
+        verify(endpointHitsRepository, never()).findStats(any(), any(), any(), any());
+        verify(endpointHitsRepository, never()).findUniqueStats(any(), any(), any(), any());
+        verify(rollupRepository, never()).findStats(any(), any(), any());
+    }
+
+    @Test
+    void hitBatchShouldInsertAllHitsAndReturnCount() {
+        when(endpointHitsRepository.insertBatch(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        long result = statsService.hitBatch(List.of(hitDto, hitDto, hitDto));
+
+        assertEquals(3, result);
+        verify(endpointHitsRepository).insertBatch(argThat(hits -> hits.size() == 3
+                && hits.getFirst().getTimestamp().equals(hit.getTimestamp().withNano(0))));
+        verify(endpointHitsRepository, never()).save(any(EndpointHit.class));
+    }
+
+    @Test
+    void hitBatchWithoutIpShouldThrowException() {
+        hitDto.setIp(null);
+
+        assertThrows(IllegalArgumentException.class, () -> statsService.hitBatch(List.of(hitDto)));
+        verify(endpointHitsRepository, never()).insertBatch(anyList());
+    }
+
+    @Test
+    void hitStreamShouldReadNdjsonAndInsertHits() throws Exception {
+        when(endpointHitsRepository.insertBatch(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        String body = """
+                {"app":"ewm-service","uri":"/events/1","ip":"127.0.0.1","timestamp":"2024-01-01 10:00:00"}
+                {"app":"ewm-service","uri":"/events/2","ip":"127.0.0.2","timestamp":"2024-01-01 10:00:01"}
+                """;
+
+        long result = statsService.hitStream(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result);
+        verify(endpointHitsRepository).insertBatch(argThat(hits -> hits.size() == 2
+                && hits.get(1).getUri().equals("/events/2")));
     }
 }
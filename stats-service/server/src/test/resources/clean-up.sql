@@ -1,2 +1,5 @@
 DELETE FROM hits;
-ALTER TABLE hits ALTER COLUMN id RESTART WITH 1;
\ No newline at end of file
+ALTER TABLE hits ALTER COLUMN id RESTART WITH 1;
+DELETE FROM hits_rollup;
+UPDATE hits_rollup_state SET last_hit_id = 0, pending_hit_id = 0;
+DELETE FROM hits_unique_rollup;